@@ -0,0 +1,216 @@
+package org.silentsoft.stopwatch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is used to print the result of stopwatches on a single background thread so that reporting never blocks the measured threads on formatting or I/O.</p>
+ * {@link #report(Stopwatch)} only moves the finished tasks out of the stopwatch and queues them. The background thread renders every queued report into one buffer and writes it to the output stream at once.
+ * The example below shows how to report periodically from a request thread.
+ * <pre>
+ *   AsyncReporter reporter = new AsyncReporter(System.out);
+ *
+ *   // on any thread
+ *   reporter.report(stopwatch);
+ *
+ *   // on shutdown
+ *   reporter.close();
+ * </pre>
+ * Note that the output stream is never closed by this reporter.
+ *
+ * @see #report(Stopwatch)
+ * @see Stopwatch#drain()
+ */
+public class AsyncReporter implements Closeable {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private static final Stopwatch END_OF_REPORTS = new Stopwatch();
+
+    private final OutputStream outputStream;
+
+    private final BlockingQueue<Stopwatch> reports;
+
+    private final Thread thread;
+
+    private boolean closed;
+
+    private IOException exception;
+
+    private final AtomicLong numberOfFailedReports = new AtomicLong();
+
+    /**
+     * Creates a new {@link AsyncReporter} which writes to the given {@code outputStream} and queues up to {@code 64} reports.
+     *
+     * @param outputStream the output stream to print
+     * @throws NullPointerException if the output stream is {@code null}
+     * @see #AsyncReporter(OutputStream, int)
+     */
+    public AsyncReporter(OutputStream outputStream) throws NullPointerException {
+        this(outputStream, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new {@link AsyncReporter} which writes to the given {@code outputStream} and queues up to {@code capacity} reports.
+     *
+     * @param outputStream the output stream to print
+     * @param capacity the maximum number of reports waiting to be written
+     * @throws NullPointerException if the output stream is {@code null}
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public AsyncReporter(OutputStream outputStream, int capacity) throws NullPointerException, IllegalArgumentException {
+        if (outputStream == null) {
+            throw new NullPointerException("Output stream cannot be null.");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+
+        this.outputStream = outputStream;
+        this.reports = new ArrayBlockingQueue<>(capacity);
+        this.thread = new Thread(this::run, "stopwatch-reporter");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues the finished tasks of the given {@code stopwatch} to be printed on the background thread.</p>
+     * This method never blocks on the writer. If the queue is full because the writer has fallen behind, or this reporter is closed, the tasks are left in the stopwatch so that they can be reported next time.
+     *
+     * @param stopwatch the stopwatch to report
+     * @return {@code true} if the tasks have been queued or there was nothing to report. Otherwise, returns {@code false}.
+     * @throws NullPointerException if the stopwatch is {@code null}
+     */
+    public boolean report(Stopwatch stopwatch) throws NullPointerException {
+        if (stopwatch == null) {
+            throw new NullPointerException("Stopwatch cannot be null.");
+        }
+        if (reports.remainingCapacity() == 0) {
+            return false;
+        }
+
+        Stopwatch snapshot = stopwatch.drain();
+        if (snapshot.watchItems.isEmpty()) {
+            return true;
+        }
+
+        boolean queued;
+        synchronized (reports) {
+            queued = closed == false && reports.offer(snapshot);
+        }
+
+        if (queued == false) {
+            synchronized (stopwatch.watchItems) {
+                stopwatch.watchItems.addAll(0, snapshot.watchItems);
+            }
+        }
+
+        return queued;
+    }
+
+    /**
+     * Writes all queued reports and stops the background thread.</p>
+     * Note that the output stream is flushed but not closed.
+     *
+     * @throws IOException if any report could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (reports) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+
+        try {
+            reports.put(END_OF_REPORTS);
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this) {
+            if (exception != null) {
+                throw exception;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of reports which could not be rendered or written because of a runtime exception.</p>
+     * Such a report is dropped and the background thread keeps writing the other reports, so a failing report never blocks {@link #report(Stopwatch)} or {@link #close()}.
+     *
+     * @return the number of failed reports
+     */
+    public long getNumberOfFailedReports() {
+        return numberOfFailedReports.get();
+    }
+
+    private void run() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        List<Stopwatch> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(reports.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            reports.drainTo(batch);
+
+            buffer.reset();
+            int numberOfRenderedReports = 0;
+            for (Stopwatch report : batch) {
+                if (report == END_OF_REPORTS) {
+                    running = false;
+                    continue;
+                }
+
+                int size = buffer.size();
+                try {
+                    report.print(buffer);
+                    numberOfRenderedReports++;
+                } catch (RuntimeException e) {
+                    // a failing report must not stop the writer, which would leave the queue full for good
+                    numberOfFailedReports.incrementAndGet();
+                    truncate(buffer, size);
+                }
+            }
+            batch.clear();
+
+            if (buffer.size() > 0) {
+                try {
+                    buffer.writeTo(outputStream);
+                    outputStream.flush();
+                } catch (IOException e) {
+                    synchronized (this) {
+                        if (exception == null) {
+                            exception = e;
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    numberOfFailedReports.addAndGet(numberOfRenderedReports);
+                }
+            }
+        }
+    }
+
+    private static void truncate(ByteArrayOutputStream buffer, int size) {
+        if (buffer.size() == size) {
+            return;
+        }
+
+        byte[] bytes = buffer.toByteArray();
+        buffer.reset();
+        buffer.write(bytes, 0, size);
+    }
+
+}
@@ -0,0 +1,73 @@
+package org.silentsoft.stopwatch;
+
+/**
+ * This class is used to consume the results computed in a repeated body so that the JIT compiler cannot eliminate the computation as dead code.</p>
+ * The example below shows how to keep the result of a measured call alive.
+ * <pre>
+ *   stopwatch.repeat("parse", 1_000, 10_000, blackhole -&gt; blackhole.consume(Integer.parseInt("42")));
+ * </pre>
+ *
+ * @see Stopwatch#repeat(String, int, int, java.util.function.Consumer)
+ */
+public final class Blackhole {
+
+    private volatile Object object = new Object();
+
+    private volatile long tripwire1 = 1, tripwire2 = 2;
+
+    private long accumulator;
+
+    Blackhole() { }
+
+    /**
+     * Consumes the given {@code object}.
+     *
+     * @param object the object to consume
+     */
+    public void consume(Object object) {
+        if (object == this.object) {
+            accumulator++;
+        }
+    }
+
+    /**
+     * Consumes the given {@code value}.
+     *
+     * @param value the value to consume
+     */
+    public void consume(long value) {
+        accumulator += value;
+    }
+
+    /**
+     * Consumes the given {@code value}.
+     *
+     * @param value the value to consume
+     */
+    public void consume(double value) {
+        accumulator += Double.doubleToRawLongBits(value);
+    }
+
+    /**
+     * Consumes the given {@code value}.
+     *
+     * @param value the value to consume
+     */
+    public void consume(boolean value) {
+        accumulator += value ? 1 : 0;
+    }
+
+    /**
+     * Reads everything consumed so far after the measured loop.</p>
+     * The accumulated value is compared against two volatile fields which never hold the same value, so the comparison never succeeds, but the JIT compiler cannot prove it and has to keep every consumed value.
+     *
+     * @throws IllegalStateException never in practice
+     */
+    void publish() throws IllegalStateException {
+        long accumulator = this.accumulator;
+        if (accumulator == tripwire1 && accumulator == tripwire2) {
+            throw new IllegalStateException("Blackhole cannot be tripped.");
+        }
+    }
+
+}
@@ -0,0 +1,341 @@
+package org.silentsoft.stopwatch;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * This class is used to keep a large number of finished tasks compactly in primitive columns instead of {@link WatchItem} objects.</p>
+ * The start, end and paused times are stored in growable {@code long[]} columns and the names as {@code int} ids, so the aggregations scan contiguous arrays in tight loops.
+ * Large sums, minimums, maximums and percentiles are split into fork-join tasks on the {@link ForkJoinPool#commonPool() common pool}.
+ * The example below shows how to move the finished tasks of a stopwatch into a store.
+ * <pre>
+ *   ColumnarWatchStore store = new ColumnarWatchStore();
+ *   store.addAll(stopwatch);
+ *
+ *   store.getTotalElapsedMilliseconds();
+ *   store.getPercentileElapsedMilliseconds(99);
+ *   store.print();
+ * </pre>
+ * Note that {@link Stopwatch#print(OutputStream, ReportOptions)} moves the finished tasks into a store of its own when the report is grouped by name.
+ *
+ * @see #add(String, long, long, long)
+ * @see #addAll(Stopwatch)
+ */
+public class ColumnarWatchStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private final Map<String, Integer> nameIds = new HashMap<>();
+
+    private final List<String> names = new ArrayList<>();
+
+    private int[] nameIdColumn = new int[INITIAL_CAPACITY];
+
+    private long[] startEpochMilliColumn = new long[INITIAL_CAPACITY];
+
+    private long[] endEpochMilliColumn = new long[INITIAL_CAPACITY];
+
+    private long[] totalPausedMilliColumn = new long[INITIAL_CAPACITY];
+
+    private int size;
+
+    /**
+     * Adds a finished task to this store.
+     *
+     * @param name the name of the task
+     * @param startEpochMilli a start time of the task in milliseconds
+     * @param endEpochMilli an end time of the task in milliseconds
+     * @param totalPausedMilli the total paused time of the task in milliseconds
+     * @throws NullPointerException if the name is {@code null}
+     */
+    public synchronized void add(String name, long startEpochMilli, long endEpochMilli, long totalPausedMilli) throws NullPointerException {
+        if (name == null) {
+            throw new NullPointerException("Name cannot be null.");
+        }
+
+        if (size == nameIdColumn.length) {
+            int capacity = size * 2;
+            nameIdColumn = Arrays.copyOf(nameIdColumn, capacity);
+            startEpochMilliColumn = Arrays.copyOf(startEpochMilliColumn, capacity);
+            endEpochMilliColumn = Arrays.copyOf(endEpochMilliColumn, capacity);
+            totalPausedMilliColumn = Arrays.copyOf(totalPausedMilliColumn, capacity);
+        }
+
+        Integer nameId = nameIds.get(name);
+        if (nameId == null) {
+            nameId = names.size();
+            nameIds.put(name, nameId);
+            names.add(name);
+        }
+
+        nameIdColumn[size] = nameId;
+        startEpochMilliColumn[size] = startEpochMilli;
+        endEpochMilliColumn[size] = endEpochMilli;
+        totalPausedMilliColumn[size] = totalPausedMilli;
+        size++;
+    }
+
+    /**
+     * Adds the given finished {@code watchItem} to this store.
+     *
+     * @param watchItem the finished watch item
+     * @throws NullPointerException if the name of the watch item is {@code null}
+     * @throws IllegalArgumentException if the watch item is not finished
+     */
+    public void add(WatchItem watchItem) throws NullPointerException, IllegalArgumentException {
+        if (watchItem.getEndEpochMilli() == null) {
+            throw new IllegalArgumentException("Watch item is not finished.");
+        }
+
+        add(watchItem.getName(), watchItem.getStartEpochMilli(), watchItem.getEndEpochMilli(), watchItem.getTotalPausedMilli());
+    }
+
+    /**
+     * Moves all finished tasks of the given {@code stopwatch} into this store.
+     *
+     * @param stopwatch the stopwatch to drain
+     * @see Stopwatch#drain()
+     */
+    public void addAll(Stopwatch stopwatch) {
+        for (WatchItem watchItem : stopwatch.drain().watchItems) {
+            add(watchItem);
+        }
+    }
+
+    /**
+     * Returns the number of tasks in this store.
+     *
+     * @return the number of tasks
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the total elapsed time of all tasks in this store in milliseconds excluding any paused time.
+     *
+     * @return the total elapsed time in milliseconds
+     */
+    public synchronized long getTotalElapsedMilliseconds() {
+        return reduce(Long::sum, 0);
+    }
+
+    /**
+     * Returns the shortest elapsed time of the tasks in this store in milliseconds.
+     *
+     * @return the minimum elapsed time in milliseconds, or {@code 0} if this store is empty
+     */
+    public synchronized long getMinElapsedMilliseconds() {
+        if (size == 0) {
+            return 0;
+        }
+
+        return reduce(Math::min, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the longest elapsed time of the tasks in this store in milliseconds.
+     *
+     * @return the maximum elapsed time in milliseconds, or {@code 0} if this store is empty
+     */
+    public synchronized long getMaxElapsedMilliseconds() {
+        if (size == 0) {
+            return 0;
+        }
+
+        return reduce(Math::max, Long.MIN_VALUE);
+    }
+
+    /**
+     * Returns the exact elapsed time at the given {@code percentile} using the nearest-rank method.
+     *
+     * @param percentile the percentile between {@code 0} and {@code 100}
+     * @return the elapsed time in milliseconds, or {@code 0} if this store is empty
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public synchronized long getPercentileElapsedMilliseconds(double percentile) throws IllegalArgumentException {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+        }
+        if (size == 0) {
+            return 0;
+        }
+
+        long[] elapsedMillis = new long[size];
+        if (size < PARALLEL_THRESHOLD) {
+            fill(elapsedMillis, 0, size);
+            Arrays.sort(elapsedMillis);
+        } else {
+            ForkJoinPool.commonPool().invoke(new FillTask(elapsedMillis, 0, size));
+            Arrays.parallelSort(elapsedMillis);
+        }
+
+        int rank = (int) Math.ceil(size * percentile / 100.0);
+        return elapsedMillis[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Returns the statistics of the tasks in this store grouped by name in the order in which each name first appears.
+     *
+     * @return a map of the task name to its statistics
+     */
+    public synchronized Map<String, WatchStatistics> getStatistics() {
+        WatchStatistics[] statisticsById = new WatchStatistics[names.size()];
+        for (int i=0; i<statisticsById.length; i++) {
+            statisticsById[i] = new WatchStatistics(names.get(i));
+        }
+        for (int i=0; i<size; i++) {
+            statisticsById[nameIdColumn[i]].add(elapsedMilli(i));
+        }
+
+        Map<String, WatchStatistics> statistics = new LinkedHashMap<>();
+        for (WatchStatistics watchStatistics : statisticsById) {
+            statistics.put(watchStatistics.getName(), watchStatistics);
+        }
+        return statistics;
+    }
+
+    /**
+     * Removes all tasks from this store.
+     */
+    public synchronized void clear() {
+        nameIds.clear();
+        names.clear();
+        size = 0;
+    }
+
+    /**
+     * Prints the statistics of this store as a table to the default output stream.
+     *
+     * @see #print(OutputStream)
+     * @see System#out
+     */
+    public void print() {
+        print(System.out);
+    }
+
+    /**
+     * Prints the statistics of this store as a table to the given output stream.</p>
+     * Note that unlike {@link Stopwatch#print(OutputStream)}, the tasks are not cleared after printing. The output stream is flushed but not closed.
+     *
+     * @param outputStream the output stream to print
+     * @throws NullPointerException if the output stream is null
+     * @throws RuntimeException if the output stream cannot be written
+     */
+    public void print(OutputStream outputStream) {
+        if (outputStream == null) {
+            throw new NullPointerException("Output stream cannot be null.");
+        }
+
+        Map<String, WatchStatistics> statistics = getStatistics();
+        if (statistics.isEmpty()) {
+            return;
+        }
+
+        Table.of(statistics.values()).print(outputStream);
+    }
+
+    private long elapsedMilli(int i) {
+        return endEpochMilliColumn[i] - startEpochMilliColumn[i] - totalPausedMilliColumn[i];
+    }
+
+    /**
+     * Reduces the elapsed times of all tasks with the given {@code operator}, splitting the scan into fork-join tasks if this store is large.
+     *
+     * @param operator the associative operator combining two elapsed times
+     * @param identity the identity of the operator
+     * @return the reduced elapsed time in milliseconds
+     */
+    private long reduce(LongBinaryOperator operator, long identity) {
+        if (size < PARALLEL_THRESHOLD) {
+            return reduce(0, size, operator, identity);
+        }
+
+        return ForkJoinPool.commonPool().invoke(new ReduceTask(0, size, operator, identity));
+    }
+
+    private long reduce(int from, int to, LongBinaryOperator operator, long identity) {
+        long result = identity;
+        for (int i=from; i<to; i++) {
+            result = operator.applyAsLong(result, elapsedMilli(i));
+        }
+        return result;
+    }
+
+    private void fill(long[] elapsedMillis, int from, int to) {
+        for (int i=from; i<to; i++) {
+            elapsedMillis[i] = elapsedMilli(i);
+        }
+    }
+
+    private class ReduceTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+
+        private final LongBinaryOperator operator;
+
+        private final long identity;
+
+        ReduceTask(int from, int to, LongBinaryOperator operator, long identity) {
+            this.from = from;
+            this.to = to;
+            this.operator = operator;
+            this.identity = identity;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return reduce(from, to, operator, identity);
+            }
+
+            int middle = (from + to) >>> 1;
+            ReduceTask left = new ReduceTask(from, middle, operator, identity);
+            left.fork();
+            long right = new ReduceTask(middle, to, operator, identity).compute();
+            return operator.applyAsLong(left.join(), right);
+        }
+
+    }
+
+    private class FillTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] elapsedMillis;
+
+        private final int from, to;
+
+        FillTask(long[] elapsedMillis, int from, int to) {
+            this.elapsedMillis = elapsedMillis;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                fill(elapsedMillis, from, to);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new FillTask(elapsedMillis, from, middle), new FillTask(elapsedMillis, middle, to));
+        }
+
+    }
+
+}
@@ -0,0 +1,82 @@
+package org.silentsoft.stopwatch;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * This class is used to order the plain accesses to a memory-mapped buffer which is shared with another process.</p>
+ * Java 8 has no public API for memory fences, so the fences of {@code sun.misc.Unsafe} are looked up once and called through method handles, which the JIT compiler inlines.
+ * If they cannot be found, a volatile write followed by a volatile read is used instead, which HotSpot compiles to a full fence.
+ *
+ * @see LiveStatsPublisher
+ * @see LiveStatsReader
+ */
+final class Fences {
+
+    private Fences() { }
+
+    private static final MethodHandle STORE_FENCE;
+
+    private static final MethodHandle LOAD_FENCE;
+
+    private static volatile int fallback;
+
+    static {
+        MethodHandle storeFence = null, loadFence = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+
+            MethodType methodType = MethodType.methodType(void.class);
+            storeFence = MethodHandles.lookup().findVirtual(unsafeClass, "storeFence", methodType).bindTo(unsafe);
+            loadFence = MethodHandles.lookup().findVirtual(unsafeClass, "loadFence", methodType).bindTo(unsafe);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            storeFence = null;
+            loadFence = null;
+        }
+        STORE_FENCE = storeFence;
+        LOAD_FENCE = loadFence;
+    }
+
+    /**
+     * Ensures that the stores before this fence are not reordered with the stores after it.
+     */
+    static void storeFence() {
+        if (STORE_FENCE == null) {
+            fullFence();
+            return;
+        }
+
+        try {
+            STORE_FENCE.invokeExact();
+        } catch (Throwable e) {
+            fullFence();
+        }
+    }
+
+    /**
+     * Ensures that the loads before this fence are not reordered with the loads after it.
+     */
+    static void loadFence() {
+        if (LOAD_FENCE == null) {
+            fullFence();
+            return;
+        }
+
+        try {
+            LOAD_FENCE.invokeExact();
+        } catch (Throwable e) {
+            fullFence();
+        }
+    }
+
+    private static int fullFence() {
+        fallback = 1;
+        return fallback;
+    }
+
+}
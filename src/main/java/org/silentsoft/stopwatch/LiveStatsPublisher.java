@@ -0,0 +1,303 @@
+package org.silentsoft.stopwatch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * This class is used to publish the per-name live aggregates of a {@link Stopwatch} to a memory-mapped file, so that another process can watch a running job with {@link LiveStatsReader} without attaching to it.</p>
+ * Unlike {@link Stopwatch#print()}, publishing does not clear the tasks, and it also covers the tasks which are still running.
+ * The aggregates are kept per name from the tasks added to the stopwatch, so they accumulate from the creation of the publisher regardless of the tasks printed or drained from the stopwatch since.
+ * Each publish only looks at the tasks added since the last one and at the tasks still running, and never locks the stopwatch.
+ * The example below shows how to publish every second.
+ * <pre>
+ *   LiveStatsPublisher publisher = new LiveStatsPublisher(stopwatch, Paths.get("/tmp/job.stopwatch-live"));
+ *   publisher.start(1_000);
+ * </pre>
+ * and how to watch it from a shell:
+ * <pre>
+ *   java -cp stopwatch.jar org.silentsoft.stopwatch.LiveStatsReader /tmp/job.stopwatch-live 1000
+ * </pre>
+ * The file has a fixed layout of a {@value #HEADER_SIZE}-byte header followed by a {@value #RECORD_SIZE}-byte record per name, in big-endian byte order.
+ * <pre>
+ *   header: magic(int) version(int) capacity(int) count(int) updateEpochMilli(long) startEpochMilli(long)
+ *   record: sequence(long) count(long) totalElapsedMilli(long) maxElapsedMilli(long) inFlightCount(long) oldestInFlightStartEpochMilli(long) nameLength(int) name(UTF-8)
+ * </pre>
+ * Each record is only written by the single publishing thread. Its sequence is made odd before the record is written and even after, with a store fence on each side of the record,
+ * so a reader retries whenever it sees an odd sequence or a sequence which changed while reading.
+ * Note that the name of a task is truncated to {@value #MAX_NAME_LENGTH} bytes, and the names beyond the capacity are not published.
+ *
+ * @see LiveStatsReader
+ * @see #start(long)
+ */
+public class LiveStatsPublisher implements Closeable {
+
+    static final int MAGIC = 0x5354504C;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 32;
+
+    static final int RECORD_SIZE = 128;
+
+    static final int MAX_NAME_LENGTH = RECORD_SIZE - 52;
+
+    static final int MAX_IN_FLIGHT_WATCH_ITEMS = 1_024;
+
+    /**
+     * The default number of names which can be published.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static class Aggregate {
+
+        private final int slot;
+
+        private long count, totalElapsedMilli, maxElapsedMilli;
+
+        private long inFlightCount, oldestInFlightStartEpochMilli;
+
+        private final Deque<WatchItem> inFlightWatchItems = new ArrayDeque<>();
+
+        private Aggregate(int slot) {
+            this.slot = slot;
+        }
+
+        private void add(WatchItem watchItem) {
+            Long elapsedMilli = watchItem.readElapsedMilli();
+            if (elapsedMilli != null) {
+                finish(elapsedMilli);
+                return;
+            }
+
+            inFlightWatchItems.addLast(watchItem);
+            if (inFlightWatchItems.size() > MAX_IN_FLIGHT_WATCH_ITEMS) {
+                // the oldest running task is most likely abandoned without being stopped
+                inFlightWatchItems.pollFirst();
+            }
+        }
+
+        private void finish(long elapsedMilli) {
+            count++;
+            totalElapsedMilli += elapsedMilli;
+            maxElapsedMilli = Math.max(maxElapsedMilli, elapsedMilli);
+        }
+
+        private void update() {
+            inFlightCount = 0;
+            oldestInFlightStartEpochMilli = 0;
+
+            Iterator<WatchItem> iterator = inFlightWatchItems.iterator();
+            while (iterator.hasNext()) {
+                WatchItem watchItem = iterator.next();
+                Long elapsedMilli = watchItem.readElapsedMilli();
+                if (elapsedMilli != null) {
+                    finish(elapsedMilli);
+                    iterator.remove();
+                } else {
+                    inFlightCount++;
+                    oldestInFlightStartEpochMilli = inFlightCount == 1 ? watchItem.getStartEpochMilli() : Math.min(oldestInFlightStartEpochMilli, watchItem.getStartEpochMilli());
+                }
+            }
+        }
+
+    }
+
+    private final Stopwatch stopwatch;
+
+    private final MappedByteBuffer buffer;
+
+    private final int capacity;
+
+    private final Map<String, Aggregate> aggregates = new LinkedHashMap<>();
+
+    private final Queue<WatchItem> addedWatchItems = new ConcurrentLinkedQueue<>();
+
+    private final Consumer<WatchItem> observer = addedWatchItems::add;
+
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    private ScheduledFuture<?> scheduledFuture;
+
+    /**
+     * Creates a new {@link LiveStatsPublisher} which can publish up to {@value #DEFAULT_CAPACITY} names.
+     *
+     * @param stopwatch the stopwatch to publish
+     * @param path the path of the file, which is replaced if it exists
+     * @throws NullPointerException if the stopwatch or the path is {@code null}
+     * @throws IOException if the file cannot be created
+     * @see #LiveStatsPublisher(Stopwatch, Path, int)
+     */
+    public LiveStatsPublisher(Stopwatch stopwatch, Path path) throws NullPointerException, IOException {
+        this(stopwatch, path, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new {@link LiveStatsPublisher} which can publish up to the given {@code capacity} of names.
+     *
+     * @param stopwatch the stopwatch to publish
+     * @param path the path of the file, which is replaced if it exists
+     * @param capacity the maximum number of names to publish
+     * @throws NullPointerException if the stopwatch or the path is {@code null}
+     * @throws IllegalArgumentException if the capacity is not positive
+     * @throws IOException if the file cannot be created
+     */
+    public LiveStatsPublisher(Stopwatch stopwatch, Path path, int capacity) throws NullPointerException, IllegalArgumentException, IOException {
+        if (stopwatch == null) {
+            throw new NullPointerException("Stopwatch cannot be null.");
+        }
+        if (path == null) {
+            throw new NullPointerException("Path cannot be null.");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+
+        this.stopwatch = stopwatch;
+        this.capacity = capacity;
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            this.buffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) RECORD_SIZE * capacity);
+        }
+        this.scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stopwatch-live-stats-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long epochMilli = System.currentTimeMillis();
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, capacity);
+        buffer.putInt(12, 0);
+        buffer.putLong(16, epochMilli);
+        buffer.putLong(24, epochMilli);
+
+        synchronized (stopwatch.watchItems) {
+            addedWatchItems.addAll(stopwatch.watchItems);
+            stopwatch.addObserver(observer);
+        }
+    }
+
+    /**
+     * Starts publishing periodically.
+     *
+     * @param periodMilliseconds the period in milliseconds
+     * @throws IllegalArgumentException if the period is not positive
+     * @throws IllegalStateException if this publisher is already started
+     * @see #close()
+     */
+    public synchronized void start(long periodMilliseconds) throws IllegalArgumentException, IllegalStateException {
+        if (periodMilliseconds <= 0) {
+            throw new IllegalArgumentException("Period must be positive.");
+        }
+        if (scheduledFuture != null) {
+            throw new IllegalStateException("Publisher is already started.");
+        }
+
+        scheduledFuture = scheduledExecutorService.scheduleAtFixedRate(this::publish, 0, periodMilliseconds, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publishes the current aggregates of the stopwatch immediately.</p>
+     * A task is only folded into the aggregates once its stop is seen under the lock of the task, so a task which is being stopped concurrently is published on the next call.
+     * Note that the running tasks are tracked until they stop, even if they are removed from the stopwatch in the meantime,
+     * but only the latest {@value #MAX_IN_FLIGHT_WATCH_ITEMS} running tasks are tracked per name, so the tasks which are never stopped are eventually forgotten.
+     */
+    public synchronized void publish() {
+        WatchItem watchItem;
+        while ((watchItem = addedWatchItems.poll()) != null) {
+            Aggregate aggregate = aggregates.get(watchItem.getName());
+            if (aggregate == null) {
+                if (aggregates.size() >= capacity) {
+                    continue;
+                }
+
+                aggregate = new Aggregate(aggregates.size());
+                aggregates.put(watchItem.getName(), aggregate);
+            }
+            aggregate.add(watchItem);
+        }
+
+        for (Map.Entry<String, Aggregate> entry : aggregates.entrySet()) {
+            Aggregate aggregate = entry.getValue();
+            aggregate.update();
+            write(entry.getKey(), aggregate);
+        }
+
+        buffer.putInt(12, aggregates.size());
+        buffer.putLong(16, System.currentTimeMillis());
+    }
+
+    private void write(String name, Aggregate aggregate) {
+        int offset = HEADER_SIZE + aggregate.slot * RECORD_SIZE;
+
+        long sequence = buffer.getLong(offset);
+        buffer.putLong(offset, sequence + 1);
+        Fences.storeFence();
+
+        buffer.putLong(offset + 8, aggregate.count);
+        buffer.putLong(offset + 16, aggregate.totalElapsedMilli);
+        buffer.putLong(offset + 24, aggregate.maxElapsedMilli);
+        buffer.putLong(offset + 32, aggregate.inFlightCount);
+        buffer.putLong(offset + 40, aggregate.oldestInFlightStartEpochMilli);
+        if (sequence == 0) {
+            byte[] bytes = truncate(name.getBytes(StandardCharsets.UTF_8));
+            buffer.putInt(offset + 48, bytes.length);
+            ByteBuffer duplicate = buffer.duplicate();
+            duplicate.position(offset + 52);
+            duplicate.put(bytes);
+        }
+
+        Fences.storeFence();
+        buffer.putLong(offset, sequence + 2);
+    }
+
+    private static byte[] truncate(byte[] bytes) {
+        if (bytes.length <= MAX_NAME_LENGTH) {
+            return bytes;
+        }
+
+        int length = MAX_NAME_LENGTH;
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+
+        byte[] truncated = new byte[length];
+        System.arraycopy(bytes, 0, truncated, 0, length);
+        return truncated;
+    }
+
+    /**
+     * Stops publishing periodically after publishing the current aggregates for the last time.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduledFuture != null) {
+            scheduledFuture.cancel(false);
+            scheduledFuture = null;
+        }
+        scheduledExecutorService.shutdown();
+        stopwatch.removeObserver(observer);
+
+        publish();
+        buffer.force();
+    }
+
+}
@@ -0,0 +1,257 @@
+package org.silentsoft.stopwatch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is used to read the live aggregates published by {@link LiveStatsPublisher} from another process.</p>
+ * Reading never blocks the publishing process. A record which is being written is read again until a consistent copy is seen.
+ * The example below shows how to print the aggregates of a running job once per second from a shell.
+ * <pre>
+ *   java -cp stopwatch.jar org.silentsoft.stopwatch.LiveStatsReader /tmp/job.stopwatch-live 1000
+ * </pre>
+ * and the output is as follows:
+ * <pre>
+ *   |  name | count |      ms |     avg |   max | in-flight | oldest |
+ *   |-------|-------|---------|---------|-------|-----------|--------|
+ *   | query |   420 | 1,234ms | 2.938ms |  41ms |         3 |   12ms |
+ *   | fetch |     0 |     0ms |     0ms |   0ms |         1 |  920ms |
+ * </pre>
+ * The {@code oldest} column shows how long the oldest running task of each name had been running when the aggregates were published.
+ *
+ * @see LiveStatsPublisher
+ */
+public final class LiveStatsReader {
+
+    private LiveStatsReader() { }
+
+    private static final long RETRY_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * This class is used to hold a consistent copy of a single published record.
+     */
+    public static class Entry {
+
+        private final String name;
+
+        private final long count;
+
+        private final long totalElapsedMilli;
+
+        private final long maxElapsedMilli;
+
+        private final long inFlightCount;
+
+        private final long oldestInFlightStartEpochMilli;
+
+        private final long updateEpochMilli;
+
+        Entry(String name, long count, long totalElapsedMilli, long maxElapsedMilli, long inFlightCount, long oldestInFlightStartEpochMilli, long updateEpochMilli) {
+            this.name = name;
+            this.count = count;
+            this.totalElapsedMilli = totalElapsedMilli;
+            this.maxElapsedMilli = maxElapsedMilli;
+            this.inFlightCount = inFlightCount;
+            this.oldestInFlightStartEpochMilli = oldestInFlightStartEpochMilli;
+            this.updateEpochMilli = updateEpochMilli;
+        }
+
+        /**
+         * Returns the name of the task, which may be truncated.
+         *
+         * @return the task name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the number of finished tasks.
+         *
+         * @return the number of finished tasks
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the total elapsed time of the finished tasks in milliseconds.
+         *
+         * @return the total elapsed time in milliseconds
+         */
+        public long getTotalElapsedMilli() {
+            return totalElapsedMilli;
+        }
+
+        /**
+         * Returns the longest elapsed time of the finished tasks in milliseconds.
+         *
+         * @return the maximum elapsed time in milliseconds, or {@code 0} if no task has finished
+         */
+        public long getMaxElapsedMilli() {
+            return maxElapsedMilli;
+        }
+
+        /**
+         * Returns the number of tasks which were still running when the aggregates were published.
+         *
+         * @return the number of running tasks
+         */
+        public long getInFlightCount() {
+            return inFlightCount;
+        }
+
+        /**
+         * Returns the start time of the oldest running task.
+         *
+         * @return the start time in epoch milliseconds, or {@code 0} if no task was running
+         */
+        public long getOldestInFlightStartEpochMilli() {
+            return oldestInFlightStartEpochMilli;
+        }
+
+        /**
+         * Returns the time at which the aggregates were published.
+         *
+         * @return the publish time in epoch milliseconds
+         */
+        public long getUpdateEpochMilli() {
+            return updateEpochMilli;
+        }
+
+    }
+
+    /**
+     * Reads a consistent copy of each record published to the file at the given {@code path}.
+     *
+     * @param path the path of the file
+     * @return the entries in the order in which each name was first published
+     * @throws IOException if the file cannot be read, is not in the expected format, or a record keeps being written for too long
+     */
+    public static List<Entry> read(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (fileChannel.size() < LiveStatsPublisher.HEADER_SIZE) {
+                throw new IOException("Not a stopwatch live stats file.");
+            }
+            buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+        }
+
+        if (buffer.getInt(0) != LiveStatsPublisher.MAGIC) {
+            throw new IOException("Not a stopwatch live stats file.");
+        }
+        int version = buffer.getInt(4);
+        if (version != LiveStatsPublisher.VERSION) {
+            throw new IOException("Unsupported version: ".concat(String.valueOf(version)));
+        }
+        int capacity = buffer.getInt(8);
+        if (capacity < 0 || LiveStatsPublisher.HEADER_SIZE + (long) LiveStatsPublisher.RECORD_SIZE * capacity > buffer.capacity()) {
+            throw new IOException("Truncated stopwatch live stats file.");
+        }
+
+        int count = Math.min(buffer.getInt(12), capacity);
+        long updateEpochMilli = buffer.getLong(16);
+
+        List<Entry> entries = new ArrayList<>(count);
+        for (int i=0; i<count; i++) {
+            entries.add(read(buffer, LiveStatsPublisher.HEADER_SIZE + i * LiveStatsPublisher.RECORD_SIZE, updateEpochMilli));
+        }
+        return entries;
+    }
+
+    private static Entry read(MappedByteBuffer buffer, int offset, long updateEpochMilli) throws IOException {
+        long deadline = System.nanoTime() + RETRY_TIMEOUT_NANOS;
+        while (true) {
+            long sequence = buffer.getLong(offset);
+            if ((sequence & 1) == 0) {
+                Fences.loadFence();
+
+                long count = buffer.getLong(offset + 8);
+                long totalElapsedMilli = buffer.getLong(offset + 16);
+                long maxElapsedMilli = buffer.getLong(offset + 24);
+                long inFlightCount = buffer.getLong(offset + 32);
+                long oldestInFlightStartEpochMilli = buffer.getLong(offset + 40);
+                int nameLength = Math.max(0, Math.min(buffer.getInt(offset + 48), LiveStatsPublisher.MAX_NAME_LENGTH));
+                byte[] name = new byte[nameLength];
+                for (int i=0; i<nameLength; i++) {
+                    name[i] = buffer.get(offset + 52 + i);
+                }
+
+                Fences.loadFence();
+                if (buffer.getLong(offset) == sequence) {
+                    return new Entry(new String(name, StandardCharsets.UTF_8), count, totalElapsedMilli, maxElapsedMilli, inFlightCount, oldestInFlightStartEpochMilli, updateEpochMilli);
+                }
+            }
+
+            if (System.nanoTime() - deadline > 0) {
+                throw new IOException("Record is being written for too long.");
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Prints the given {@code entries} as a table to the given output stream.</p>
+     * Note that the output stream is flushed but not closed.
+     *
+     * @param entries the entries to print
+     * @param outputStream the output stream to print
+     * @throws NullPointerException if the output stream is null
+     * @throws RuntimeException if the output stream cannot be written
+     */
+    public static void print(List<Entry> entries, OutputStream outputStream) throws NullPointerException {
+        if (outputStream == null) {
+            throw new NullPointerException("Output stream cannot be null.");
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Table table = new Table("name", "count", "ms", "avg", "max", "in-flight", "oldest");
+        for (Entry entry : entries) {
+            double averageElapsedMilli = entry.getCount() == 0 ? 0 : entry.getTotalElapsedMilli() / (entry.getCount() * 1.0);
+            String oldest = entry.getInFlightCount() == 0 ? "" : NumberFormatter.milliseconds(Math.max(0, entry.getUpdateEpochMilli() - entry.getOldestInFlightStartEpochMilli()));
+            table.addRow(entry.getName(), String.valueOf(entry.getCount()), NumberFormatter.milliseconds(entry.getTotalElapsedMilli()), NumberFormatter.milliseconds(averageElapsedMilli), NumberFormatter.milliseconds(entry.getMaxElapsedMilli()), String.valueOf(entry.getInFlightCount()), oldest);
+        }
+        table.print(outputStream);
+    }
+
+    /**
+     * Prints the live aggregates published to the given file, once or repeatedly.
+     * <pre>
+     *   java -cp stopwatch.jar org.silentsoft.stopwatch.LiveStatsReader &lt;path&gt; [periodMilliseconds]
+     * </pre>
+     *
+     * @param args the path of the file, and optionally the period in milliseconds to print repeatedly
+     * @throws Exception if the file cannot be read
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: java -cp stopwatch.jar org.silentsoft.stopwatch.LiveStatsReader <path> [periodMilliseconds]");
+            System.exit(1);
+            return;
+        }
+
+        Path path = Paths.get(args[0]);
+        long periodMilliseconds = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        while (true) {
+            print(read(path), System.out);
+            if (periodMilliseconds <= 0) {
+                break;
+            }
+
+            System.out.println();
+            Thread.sleep(periodMilliseconds);
+        }
+    }
+
+}
@@ -11,11 +11,13 @@ import java.text.NumberFormat;
  *   <li>{@code NumberFormatter.milliseconds(100)} returns {@code 100ms}</li>
  *   <li>{@code NumberFormatter.seconds(0)} returns {@code 0.000s}</li>
  *   <li>{@code NumberFormatter.seconds(0.83)} returns {@code 0.830s}</li>
+ *   <li>{@code NumberFormatter.rate(42)} returns {@code 42.0/s}</li>
  * </ul>
  * 
  * @see #percentage(double)
  * @see #milliseconds(double)
  * @see #seconds(double) 
+ * @see #rate(double)
  */
 public class NumberFormatter {
 
@@ -24,6 +26,7 @@ public class NumberFormatter {
     private static NumberFormat percentageFormat;
     private static NumberFormat millisecondsFormat;
     private static NumberFormat secondsFormat;
+    private static NumberFormat rateFormat;
 
     /**
      * Returns the given {@code number} as a human-readable string with a percentage sign.</p>
@@ -88,4 +91,26 @@ public class NumberFormatter {
         return secondsFormat.format(number).concat("s");
     }
 
+    /**
+     * Returns the given {@code number} of occurrences per second as a human-readable string with a {@code /s} suffix.</p>
+     * Note that the minimum fraction digits and maximum fraction digits are always set to {@code 1}.
+     * <p>Examples:</p>
+     * <ul>
+     *   <li>{@code NumberFormatter.rate(0)} returns {@code 0.0/s}</li>
+     *   <li>{@code NumberFormatter.rate(1234.56)} returns {@code 1,234.6/s}</li>
+     * </ul>
+     *
+     * @param number the number to be formatted
+     * @return a formatted string
+     */
+    public static String rate(double number) {
+        if (rateFormat == null) {
+            rateFormat = NumberFormat.getInstance();
+            rateFormat.setMinimumFractionDigits(1);
+            rateFormat.setMaximumFractionDigits(1);
+        }
+
+        return rateFormat.format(number).concat("/s");
+    }
+
 }
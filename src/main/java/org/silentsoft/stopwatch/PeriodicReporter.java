@@ -0,0 +1,196 @@
+package org.silentsoft.stopwatch;
+
+import java.io.Closeable;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is used to report the per-name statistics of the tasks finished during each interval of a {@link Stopwatch}.</p>
+ * On each interval, the finished tasks are moved out of the stopwatch at once by {@link Stopwatch#drain()}, so no task finished between two reports is lost and the existing call sites stay unchanged.
+ * The example below shows how to print the statistics every ten seconds.
+ * <pre>
+ *   PeriodicReporter reporter = new PeriodicReporter(stopwatch, PeriodicReporter.table(System.out));
+ *   reporter.start(10_000);
+ * </pre>
+ * and the output of each interval is as follows:
+ * <pre>
+ *   |  name | count |   rate |      ms |     avg |
+ *   |-------|-------|--------|---------|---------|
+ *   | query |   420 | 42.0/s | 1,234ms | 2.938ms |
+ *   |       |       |        |         |         |
+ *   | total |   420 | 42.0/s | 1,234ms | 2.938ms |
+ * </pre>
+ *
+ * @see #start(long)
+ * @see #report()
+ */
+public class PeriodicReporter implements Closeable {
+
+    /**
+     * This interface is used to receive the statistics of each interval, e.g. to print them or to publish them to a metrics system.
+     */
+    @FunctionalInterface
+    public interface Sink {
+
+        /**
+         * Called on each interval with the statistics of the tasks finished during that interval.
+         *
+         * @param intervalMilliseconds the length of the interval in milliseconds
+         * @param statistics the per-name statistics of the interval, which may be empty
+         */
+        void report(long intervalMilliseconds, Collection<WatchStatistics> statistics);
+
+    }
+
+    private final Stopwatch stopwatch;
+
+    private final Sink sink;
+
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    private final boolean ownsScheduledExecutorService;
+
+    private ScheduledFuture<?> scheduledFuture;
+
+    private long lastReportNanoTime;
+
+    /**
+     * Creates a new {@link PeriodicReporter} which reports on its own background daemon thread.
+     *
+     * @param stopwatch the stopwatch to report
+     * @param sink the sink to receive the statistics of each interval
+     * @throws NullPointerException if the stopwatch or the sink is {@code null}
+     * @see #PeriodicReporter(Stopwatch, Sink, ScheduledExecutorService)
+     */
+    public PeriodicReporter(Stopwatch stopwatch, Sink sink) throws NullPointerException {
+        this(stopwatch, sink, null);
+    }
+
+    /**
+     * Creates a new {@link PeriodicReporter} which reports on the given {@code scheduledExecutorService}.</p>
+     * Note that the given scheduled executor service is not shut down by {@link #close()}.
+     *
+     * @param stopwatch the stopwatch to report
+     * @param sink the sink to receive the statistics of each interval
+     * @param scheduledExecutorService the scheduled executor service to report on, or {@code null} to use its own background daemon thread
+     * @throws NullPointerException if the stopwatch or the sink is {@code null}
+     */
+    public PeriodicReporter(Stopwatch stopwatch, Sink sink, ScheduledExecutorService scheduledExecutorService) throws NullPointerException {
+        if (stopwatch == null) {
+            throw new NullPointerException("Stopwatch cannot be null.");
+        }
+        if (sink == null) {
+            throw new NullPointerException("Sink cannot be null.");
+        }
+
+        this.stopwatch = stopwatch;
+        this.sink = sink;
+        this.ownsScheduledExecutorService = scheduledExecutorService == null;
+        this.scheduledExecutorService = scheduledExecutorService != null ? scheduledExecutorService : Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stopwatch-periodic-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.lastReportNanoTime = System.nanoTime();
+    }
+
+    /**
+     * Starts reporting periodically.
+     *
+     * @param periodMilliseconds the length of each interval in milliseconds
+     * @throws IllegalArgumentException if the period is not positive
+     * @throws IllegalStateException if this reporter is already started
+     * @see #close()
+     */
+    public synchronized void start(long periodMilliseconds) throws IllegalArgumentException, IllegalStateException {
+        if (periodMilliseconds <= 0) {
+            throw new IllegalArgumentException("Period must be positive.");
+        }
+        if (scheduledFuture != null) {
+            throw new IllegalStateException("Reporter is already started.");
+        }
+
+        lastReportNanoTime = System.nanoTime();
+        scheduledFuture = scheduledExecutorService.scheduleAtFixedRate(this::report, periodMilliseconds, periodMilliseconds, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reports the statistics of the tasks finished since the previous report immediately.</p>
+     * Note that any exception thrown by the sink is swallowed so that it does not stop the periodic reports.
+     */
+    public void report() {
+        Stopwatch snapshot;
+        long intervalMilliseconds;
+        synchronized (this) {
+            snapshot = stopwatch.drain();
+
+            long nanoTime = System.nanoTime();
+            intervalMilliseconds = TimeUnit.NANOSECONDS.toMillis(nanoTime - lastReportNanoTime);
+            lastReportNanoTime = nanoTime;
+        }
+
+        try {
+            sink.report(intervalMilliseconds, new ArrayList<>(snapshot.getStatistics().values()));
+        } catch (Exception e) {
+            // the sink must not stop the reporter
+        }
+    }
+
+    /**
+     * Stops reporting periodically after reporting the tasks finished since the previous report.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduledFuture != null) {
+            scheduledFuture.cancel(false);
+            scheduledFuture = null;
+        }
+        if (ownsScheduledExecutorService) {
+            scheduledExecutorService.shutdown();
+        }
+
+        report();
+    }
+
+    /**
+     * Returns a sink which prints the statistics of each non-empty interval as a table to the given output stream.</p>
+     * The {@code rate} column shows the number of tasks finished per second during the interval.
+     *
+     * @param outputStream the output stream to print
+     * @return a sink printing tables
+     * @throws NullPointerException if the output stream is {@code null}
+     */
+    public static Sink table(OutputStream outputStream) throws NullPointerException {
+        if (outputStream == null) {
+            throw new NullPointerException("Output stream cannot be null.");
+        }
+
+        return (intervalMilliseconds, statistics) -> {
+            if (statistics.isEmpty()) {
+                return;
+            }
+
+            double intervalSeconds = Math.max(intervalMilliseconds, 1) / 1000.0;
+            long totalCount = 0, totalElapsedMilliseconds = 0;
+
+            Table table = new Table("name", "count", "rate", "ms", "avg");
+            for (WatchStatistics watchStatistics : statistics) {
+                totalCount += watchStatistics.getCount();
+                totalElapsedMilliseconds += watchStatistics.getTotalElapsedMilli();
+
+                table.addRow(watchStatistics.getName(), String.valueOf(watchStatistics.getCount()), NumberFormatter.rate(watchStatistics.getCount() / intervalSeconds), NumberFormatter.milliseconds(watchStatistics.getTotalElapsedMilli()), NumberFormatter.milliseconds(watchStatistics.getAverageElapsedMilli()));
+            }
+            table.addFooter("total", String.valueOf(totalCount), NumberFormatter.rate(totalCount / intervalSeconds), NumberFormatter.milliseconds(totalElapsedMilliseconds), NumberFormatter.milliseconds(totalCount == 0 ? 0 : totalElapsedMilliseconds / (totalCount * 1.0)));
+
+            synchronized (outputStream) {
+                table.print(outputStream);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,284 @@
+package org.silentsoft.stopwatch;
+
+import java.io.OutputStream;
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class is used to summarize the measured iterations of a task repeated by {@link Stopwatch#repeat(String, int, int, Runnable)}.</p>
+ * It provides the mean, the sample standard deviation, the half-width of the 99% confidence interval of the mean ({@code 99% ci}) and the number of outliers outside of the Tukey fences.
+ * Each sample times a batch of calls long enough to be well above the resolution of {@link System#nanoTime()}, and the statistics are those of the mean time of a call in each sample.
+ * The mean and the standard deviation are accumulated as the samples come, while the quartiles are taken from a uniform reservoir of at most {@value #RESERVOIR_SIZE} samples, so the memory stays bounded however long the task is repeated.
+ * The results of several tasks can be printed side by side as follows:
+ * <pre>
+ *   |   name |      n |    mean |  99% ci |  stddev |     min |     max | outliers |
+ *   |--------|--------|---------|---------|---------|---------|---------|----------|
+ *   | arrays | 10,000 | 0.012ms | 0.001ms | 0.003ms | 0.010ms | 0.090ms |       42 |
+ *   |   list | 10,000 | 0.031ms | 0.002ms | 0.008ms | 0.024ms | 0.160ms |       57 |
+ * </pre>
+ *
+ * @see Stopwatch#repeat(String, int, int, Runnable)
+ * @see #print(OutputStream, RepeatResult...)
+ */
+public class RepeatResult {
+
+    /**
+     * This class is used to accumulate the samples of a repeated task in constant memory.
+     */
+    static class Samples {
+
+        private final double[] reservoir = new double[RESERVOIR_SIZE];
+
+        private long count;
+
+        private double mean, sumOfSquaredDeviations;
+
+        private double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+
+        /**
+         * Adds the mean time of a call measured by a sample.
+         *
+         * @param nanos the mean time of a call in nanoseconds
+         */
+        void add(double nanos) {
+            count++;
+
+            double deviation = nanos - mean;
+            mean += deviation / count;
+            sumOfSquaredDeviations += deviation * (nanos - mean);
+
+            min = Math.min(min, nanos);
+            max = Math.max(max, nanos);
+
+            if (count <= RESERVOIR_SIZE) {
+                reservoir[(int) (count - 1)] = nanos;
+            } else {
+                long index = ThreadLocalRandom.current().nextLong(count);
+                if (index < RESERVOIR_SIZE) {
+                    reservoir[(int) index] = nanos;
+                }
+            }
+        }
+
+        /**
+         * Returns the number of samples added so far.
+         *
+         * @return the number of samples
+         */
+        long getCount() {
+            return count;
+        }
+
+    }
+
+    static final int RESERVOIR_SIZE = 10_000;
+
+    private static final double[] T_DISTRIBUTION_99 = {
+        63.657, 9.925, 5.841, 4.604, 4.032, 3.707, 3.499, 3.355, 3.250, 3.169,
+        3.106, 3.055, 3.012, 2.977, 2.947, 2.921, 2.898, 2.878, 2.861, 2.845,
+        2.831, 2.819, 2.807, 2.797, 2.787, 2.779, 2.771, 2.763, 2.756, 2.750
+    };
+
+    private final String name;
+
+    private final int iterations;
+
+    private final long samples;
+
+    private final double meanNanos;
+
+    private final double standardDeviationNanos;
+
+    private final double confidenceIntervalNanos;
+
+    private final long minNanos;
+
+    private final long maxNanos;
+
+    private final int lowOutliers;
+
+    private final int highOutliers;
+
+    /**
+     * Creates a new {@link RepeatResult} from the accumulated samples.
+     *
+     * @param name the name of the task
+     * @param iterations the number of measured calls
+     * @param samples the accumulated mean time of a call in each sample
+     */
+    RepeatResult(String name, int iterations, Samples samples) {
+        this.name = name;
+        this.iterations = iterations;
+        this.samples = samples.count;
+
+        long count = samples.count;
+        this.meanNanos = samples.mean;
+        this.standardDeviationNanos = count < 2 ? 0 : Math.sqrt(samples.sumOfSquaredDeviations / (count - 1));
+        this.confidenceIntervalNanos = count < 2 ? 0 : criticalValue(count - 1) * standardDeviationNanos / Math.sqrt(count);
+
+        this.minNanos = count == 0 ? 0 : Math.round(samples.min);
+        this.maxNanos = count == 0 ? 0 : Math.round(samples.max);
+
+        int lowOutliers = 0, highOutliers = 0;
+        if (count >= 4) {
+            int length = (int) Math.min(count, RESERVOIR_SIZE);
+            double[] reservoir = Arrays.copyOf(samples.reservoir, length);
+            Arrays.sort(reservoir);
+
+            double firstQuartile = quantile(reservoir, 0.25);
+            double thirdQuartile = quantile(reservoir, 0.75);
+            double interquartileRange = thirdQuartile - firstQuartile;
+            for (int i=0; i<length; i++) {
+                if (reservoir[i] < firstQuartile - 1.5 * interquartileRange) {
+                    lowOutliers++;
+                } else if (reservoir[i] > thirdQuartile + 1.5 * interquartileRange) {
+                    highOutliers++;
+                }
+            }
+
+            if (count > length) {
+                lowOutliers = (int) Math.min(Integer.MAX_VALUE, Math.round(lowOutliers * (count / (double) length)));
+                highOutliers = (int) Math.min(Integer.MAX_VALUE, Math.round(highOutliers * (count / (double) length)));
+            }
+        }
+        this.lowOutliers = lowOutliers;
+        this.highOutliers = highOutliers;
+    }
+
+    /**
+     * Returns the name of the task.
+     *
+     * @return the task name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of measured iterations excluding the warmup iterations.
+     *
+     * @return the number of measured iterations
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Returns the number of samples the iterations were measured in, each of which times a batch of iterations.
+     *
+     * @return the number of samples
+     */
+    public long getSamples() {
+        return samples;
+    }
+
+    /**
+     * Returns the mean elapsed time of an iteration in nanoseconds, averaged over the samples.
+     *
+     * @return the mean in nanoseconds
+     */
+    public double getMeanNanos() {
+        return meanNanos;
+    }
+
+    /**
+     * Returns the sample standard deviation of the mean elapsed time of an iteration in each sample in nanoseconds.
+     *
+     * @return the standard deviation in nanoseconds
+     */
+    public double getStandardDeviationNanos() {
+        return standardDeviationNanos;
+    }
+
+    /**
+     * Returns the half-width of the 99% confidence interval of the mean in nanoseconds based on the Student's t-distribution.
+     *
+     * @return the half-width of the confidence interval in nanoseconds
+     */
+    public double getConfidenceIntervalNanos() {
+        return confidenceIntervalNanos;
+    }
+
+    /**
+     * Returns the shortest mean elapsed time of an iteration in a sample in nanoseconds.
+     *
+     * @return the minimum in nanoseconds
+     */
+    public long getMinNanos() {
+        return minNanos;
+    }
+
+    /**
+     * Returns the longest mean elapsed time of an iteration in a sample in nanoseconds.
+     *
+     * @return the maximum in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Returns the number of samples below the lower Tukey fence, i.e. {@code Q1 - 1.5 * IQR}.</p>
+     * Note that if there are more samples than the reservoir holds, this is estimated from the reservoir.
+     *
+     * @return the number of low outliers
+     */
+    public int getLowOutliers() {
+        return lowOutliers;
+    }
+
+    /**
+     * Returns the number of samples above the upper Tukey fence, i.e. {@code Q3 + 1.5 * IQR}.</p>
+     * Note that if there are more samples than the reservoir holds, this is estimated from the reservoir.
+     *
+     * @return the number of high outliers
+     */
+    public int getHighOutliers() {
+        return highOutliers;
+    }
+
+    /**
+     * Prints the given {@code results} as a table to the given output stream, which is handy to compare implementations.</p>
+     * Note that the output stream is flushed but not closed.
+     *
+     * @param outputStream the output stream to print
+     * @param results the results to print
+     * @throws NullPointerException if the output stream is null
+     * @throws RuntimeException if the output stream cannot be written
+     */
+    public static void print(OutputStream outputStream, RepeatResult... results) {
+        if (outputStream == null) {
+            throw new NullPointerException("Output stream cannot be null.");
+        }
+        if (results.length == 0) {
+            return;
+        }
+
+        Table table = new Table("name", "n", "mean", "99% ci", "stddev", "min", "max", "outliers");
+        for (RepeatResult result : results) {
+            table.addRow(result.getName(), NumberFormat.getInstance().format(result.getIterations()), milliseconds(result.getMeanNanos()), milliseconds(result.getConfidenceIntervalNanos()), milliseconds(result.getStandardDeviationNanos()), milliseconds(result.getMinNanos()), milliseconds(result.getMaxNanos()), String.valueOf(result.getLowOutliers() + result.getHighOutliers()));
+        }
+        table.print(outputStream);
+    }
+
+    private static String milliseconds(double nanos) {
+        return NumberFormatter.milliseconds(nanos / 1_000_000.0);
+    }
+
+    private static double quantile(double[] sortedSamples, double probability) {
+        double position = probability * (sortedSamples.length - 1);
+        int lower = (int) Math.floor(position);
+        int upper = Math.min(lower + 1, sortedSamples.length - 1);
+        return sortedSamples[lower] + (position - lower) * (sortedSamples[upper] - sortedSamples[lower]);
+    }
+
+    private static double criticalValue(long degreesOfFreedom) {
+        if (degreesOfFreedom <= T_DISTRIBUTION_99.length) {
+            return T_DISTRIBUTION_99[(int) degreesOfFreedom - 1];
+        }
+
+        return 2.576 + 5.0 / degreesOfFreedom;
+    }
+
+}
@@ -0,0 +1,193 @@
+package org.silentsoft.stopwatch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * This class is used to select the rows of a report according to the given {@link ReportOptions} in a single pass.</p>
+ * Only the top {@code k} rows are kept in a bounded heap while the rows are offered, and every row which is left out is added to the {@code other} row.
+ *
+ * @see Stopwatch#print(java.io.OutputStream, ReportOptions)
+ */
+class Report {
+
+    private static class Row {
+
+        private final String name;
+
+        private long count;
+
+        private long totalElapsedMilli;
+
+        private long maxElapsedMilli;
+
+        private final long index;
+
+        private final Map<String, Long> laps;
+
+        private Row(String name, long count, long totalElapsedMilli, long maxElapsedMilli, long index, Map<String, Long> laps) {
+            this.name = name;
+            this.count = count;
+            this.totalElapsedMilli = totalElapsedMilli;
+            this.maxElapsedMilli = maxElapsedMilli;
+            this.index = index;
+            this.laps = laps;
+        }
+
+        private long valueOf(ReportOptions.SortBy sortBy) {
+            switch (sortBy) {
+                case COUNT:
+                    return count;
+                case MAX:
+                    return maxElapsedMilli;
+                default:
+                    return totalElapsedMilli;
+            }
+        }
+
+    }
+
+    private final ReportOptions options;
+
+    private final long totalElapsedMilliseconds;
+
+    private final Comparator<Row> ranking;
+
+    private final PriorityQueue<Row> heap;
+
+    private final Row other = new Row("other", 0, 0, 0, -1, null);
+
+    private final Row total = new Row("total", 0, 0, 0, -1, null);
+
+    private long numberOfRows;
+
+    private String[] overheadValues;
+
+    /**
+     * Creates a new {@link Report} with the given {@code options}.
+     *
+     * @param options the options of the report
+     * @param totalElapsedMilliseconds the total elapsed time which the percentage of each row is relative to
+     */
+    Report(ReportOptions options, long totalElapsedMilliseconds) {
+        this.options = options;
+        this.totalElapsedMilliseconds = totalElapsedMilliseconds;
+
+        ReportOptions.SortBy sortBy = options.getSortBy();
+        this.ranking = Comparator.<Row>comparingLong(row -> row.valueOf(sortBy)).reversed().thenComparingLong(row -> row.index);
+        this.heap = new PriorityQueue<>(options.getLimit() > 0 ? options.getLimit() + 1 : 16, ranking.reversed());
+    }
+
+    /**
+     * Offers a row to this report.
+     *
+     * @param name the name of the row
+     * @param count the number of tasks of the row
+     * @param totalElapsedMilli the total elapsed time of the row in milliseconds
+     * @param maxElapsedMilli the longest elapsed time of the row in milliseconds
+     */
+    void offer(String name, long count, long totalElapsedMilli, long maxElapsedMilli) {
+        offer(name, count, totalElapsedMilli, maxElapsedMilli, null);
+    }
+
+    /**
+     * Offers a row to this report with the elapsed time of each lap label of its tasks, which are listed as sub-rows unless the row is left out.
+     *
+     * @param name the name of the row
+     * @param count the number of tasks of the row
+     * @param totalElapsedMilli the total elapsed time of the row in milliseconds
+     * @param maxElapsedMilli the longest elapsed time of the row in milliseconds
+     * @param laps the elapsed time of each lap label in milliseconds, or {@code null} if the tasks have no laps
+     */
+    void offer(String name, long count, long totalElapsedMilli, long maxElapsedMilli, Map<String, Long> laps) {
+        Row row = new Row(name, count, totalElapsedMilli, maxElapsedMilli, numberOfRows++, laps);
+        add(total, row);
+
+        if (totalElapsedMilli < options.getMinElapsedMilliseconds() || totalElapsedMilli * 100.0 < options.getMinPercentage() * totalElapsedMilliseconds) {
+            add(other, row);
+            return;
+        }
+
+        heap.add(row);
+        if (options.getLimit() > 0 && heap.size() > options.getLimit()) {
+            add(other, heap.poll());
+        }
+    }
+
+    /**
+     * Sets the percentage, milliseconds and seconds of the {@code overhead} row which is added below the total.
+     *
+     * @param overheadValues the values of the overhead row, or {@code null} to leave the row out
+     */
+    void setOverheadValues(String[] overheadValues) {
+        this.overheadValues = overheadValues;
+    }
+
+    private static void add(Row target, Row row) {
+        target.count += row.count;
+        target.totalElapsedMilli += row.totalElapsedMilli;
+        target.maxElapsedMilli = Math.max(target.maxElapsedMilli, row.maxElapsedMilli);
+    }
+
+    /**
+     * Returns the selected rows as a table, followed by the {@code other} row labelled with the number of tasks in it if any row was left out.</p>
+     * If the rows are grouped by name, the table has the {@code count} and {@code max} columns in addition to the columns of {@link Stopwatch#print(java.io.OutputStream)}.
+     * The {@code overhead} row is added below the total if its values are set.
+     *
+     * @return a new table
+     */
+    Table toTable() {
+        List<Row> rows = new ArrayList<>(heap);
+        rows.sort(ranking);
+
+        boolean groupByName = options.isGroupByName();
+        Table table = groupByName ? new Table("name", "count", "%", "ms", "s", "max") : new Table("name", "%", "ms", "s");
+        for (Row row : rows) {
+            table.addRow(valuesOf(row, row.name, groupByName));
+            if (row.laps == null) {
+                continue;
+            }
+
+            for (Map.Entry<String, Long> lap : row.laps.entrySet()) {
+                table.addRow(lapValuesOf("- ".concat(lap.getKey()), lap.getValue(), groupByName));
+            }
+        }
+        if (other.count > 0) {
+            table.addRow(valuesOf(other, String.format("%s (%s)", other.name, formatCount(other.count)), groupByName));
+        }
+        table.addFooter(groupByName ? new String[] { total.name, formatCount(total.count), "100%", NumberFormatter.milliseconds(totalElapsedMilliseconds), NumberFormatter.seconds(totalElapsedMilliseconds / 1000.0), NumberFormatter.milliseconds(total.maxElapsedMilli) } : new String[] { total.name, "100%", NumberFormatter.milliseconds(totalElapsedMilliseconds), NumberFormatter.seconds(totalElapsedMilliseconds / 1000.0) });
+        if (overheadValues != null) {
+            table.addFooter(groupByName ? Table.join(new String[] { "overhead", "" }, overheadValues) : Table.join(new String[] { "overhead" }, overheadValues));
+        }
+
+        return table;
+    }
+
+    private static String formatCount(long count) {
+        return String.valueOf(count);
+    }
+
+    private String[] lapValuesOf(String label, long elapsedMilli, boolean groupByName) {
+        String percentage = NumberFormatter.percentage(totalElapsedMilliseconds == 0 ? 0 : (elapsedMilli / (totalElapsedMilliseconds * 1.0)) * 100);
+        String elapsedMilliseconds = NumberFormatter.milliseconds(elapsedMilli);
+        String elapsedSeconds = NumberFormatter.seconds(elapsedMilli / 1000.0);
+        if (groupByName) {
+            return new String[] { label, "", percentage, elapsedMilliseconds, elapsedSeconds, "" };
+        }
+        return new String[] { label, percentage, elapsedMilliseconds, elapsedSeconds };
+    }
+
+    private String[] valuesOf(Row row, String name, boolean groupByName) {
+        String percentage = NumberFormatter.percentage(totalElapsedMilliseconds == 0 ? 0 : (row.totalElapsedMilli / (totalElapsedMilliseconds * 1.0)) * 100);
+        String elapsedMilliseconds = NumberFormatter.milliseconds(row.totalElapsedMilli);
+        String elapsedSeconds = NumberFormatter.seconds(row.totalElapsedMilli / 1000.0);
+        if (groupByName) {
+            return new String[] { name, formatCount(row.count), percentage, elapsedMilliseconds, elapsedSeconds, NumberFormatter.milliseconds(row.maxElapsedMilli) };
+        }
+        return new String[] { name, percentage, elapsedMilliseconds, elapsedSeconds };
+    }
+
+}
@@ -0,0 +1,165 @@
+package org.silentsoft.stopwatch;
+
+/**
+ * This class is used to keep the report of {@link Stopwatch#print(java.io.OutputStream, ReportOptions)} readable when a stopwatch holds a very large number of tasks.</p>
+ * The rows can be grouped by name, sorted by their total, count or max, limited to the top {@code k}, and filtered by a minimum elapsed time or percentage.
+ * All the rows which are left out are collapsed into a single {@code other} row, so the total still adds up.
+ * The example below shows how to print the ten names which took the most time, leaving out the names below one percent.
+ * <pre>
+ *   ReportOptions options = new ReportOptions();
+ *   options.setGroupByName(true);
+ *   options.setLimit(10);
+ *   options.setMinPercentage(1.0);
+ *
+ *   stopwatch.print(System.out, options);
+ * </pre>
+ * Note that the top rows are selected with a bounded heap, so a report costs {@code O(n log k)} for {@code n} rows.
+ *
+ * @see Stopwatch#print(java.io.OutputStream, ReportOptions)
+ */
+public class ReportOptions {
+
+    /**
+     * This enum is used to choose the value by which the rows of a report are sorted in descending order.
+     */
+    public enum SortBy {
+
+        /**
+         * Sorts by the total elapsed time.
+         */
+        TOTAL,
+
+        /**
+         * Sorts by the number of tasks. Note that every row counts a single task unless the rows are grouped by name.
+         */
+        COUNT,
+
+        /**
+         * Sorts by the longest elapsed time.
+         */
+        MAX
+
+    }
+
+    private int limit;
+
+    private boolean groupByName;
+
+    private SortBy sortBy = SortBy.TOTAL;
+
+    private long minElapsedMilliseconds;
+
+    private double minPercentage;
+
+    /**
+     * Returns the maximum number of rows to report.
+     *
+     * @return the maximum number of rows, or {@code 0} if unlimited
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sets the maximum number of rows to report. The default is {@code 0}, which means unlimited.
+     *
+     * @param limit the maximum number of rows, or {@code 0} for unlimited
+     * @throws IllegalArgumentException if the limit is negative
+     */
+    public void setLimit(int limit) throws IllegalArgumentException {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative.");
+        }
+
+        this.limit = limit;
+    }
+
+    /**
+     * Returns whether the tasks are grouped by name into a single row each.
+     *
+     * @return {@code true} if the tasks are grouped by name
+     */
+    public boolean isGroupByName() {
+        return groupByName;
+    }
+
+    /**
+     * Sets whether the tasks are grouped by name into a single row each. The default is {@code false}, which reports each task as its own row.
+     *
+     * @param groupByName {@code true} to group the tasks by name
+     */
+    public void setGroupByName(boolean groupByName) {
+        this.groupByName = groupByName;
+    }
+
+    /**
+     * Returns the value by which the rows are sorted in descending order.
+     *
+     * @return the sort order
+     */
+    public SortBy getSortBy() {
+        return sortBy;
+    }
+
+    /**
+     * Sets the value by which the rows are sorted in descending order. The default is {@link SortBy#TOTAL}.</p>
+     * Note that the rows with the same value keep the order in which they were added.
+     *
+     * @param sortBy the sort order
+     * @throws NullPointerException if the sort order is {@code null}
+     */
+    public void setSortBy(SortBy sortBy) throws NullPointerException {
+        if (sortBy == null) {
+            throw new NullPointerException("Sort by cannot be null.");
+        }
+
+        this.sortBy = sortBy;
+    }
+
+    /**
+     * Returns the minimum total elapsed time of a row to be reported.
+     *
+     * @return the minimum elapsed time in milliseconds
+     */
+    public long getMinElapsedMilliseconds() {
+        return minElapsedMilliseconds;
+    }
+
+    /**
+     * Sets the minimum total elapsed time of a row to be reported. The default is {@code 0}.
+     *
+     * @param minElapsedMilliseconds the minimum elapsed time in milliseconds
+     * @throws IllegalArgumentException if the minimum elapsed time is negative
+     */
+    public void setMinElapsedMilliseconds(long minElapsedMilliseconds) throws IllegalArgumentException {
+        if (minElapsedMilliseconds < 0) {
+            throw new IllegalArgumentException("Minimum elapsed time cannot be negative.");
+        }
+
+        this.minElapsedMilliseconds = minElapsedMilliseconds;
+    }
+
+    /**
+     * Returns the minimum share of the total elapsed time of a row to be reported.
+     *
+     * @return the minimum share in percentage
+     */
+    public double getMinPercentage() {
+        return minPercentage;
+    }
+
+    /**
+     * Sets the minimum share of the total elapsed time of a row to be reported. The default is {@code 0}.
+     *
+     * @param minPercentage the minimum share in percentage
+     * @throws IllegalArgumentException if the minimum share is not between {@code 0} and {@code 100}
+     */
+    public void setMinPercentage(double minPercentage) throws IllegalArgumentException {
+        if ((minPercentage >= 0 && minPercentage <= 100) == false) {
+            throw new IllegalArgumentException("Minimum percentage must be between 0 and 100.");
+        }
+
+        this.minPercentage = minPercentage;
+    }
+
+}
@@ -1,9 +1,20 @@
 package org.silentsoft.stopwatch;
 
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
-import java.util.stream.IntStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.LongStream;
 
 /**
@@ -44,17 +55,40 @@ import java.util.stream.LongStream;
  * @see #pause(String)
  * @see #resume()
  * @see #resume(String)
+ * @see #lap(String)
+ * @see #lap(String, String)
  * @see #stop()
  * @see #stop(String)
  * @see #print()
  * @see #print(OutputStream) 
+ * @see #print(OutputStream, ReportOptions)
  */
 public class Stopwatch {
 
     protected static final String NOT_AVAILABLE = "N/A";
 
+    private static final long MIN_SAMPLE_NANOS = 10_000;
+
+    private static final long CLOCK_RESOLUTION_NANOS = 1_000_000;
+
+    private static final String LAST_LAP_LABEL = "(stop)";
+
     protected LinkedList<WatchItem> watchItems = new LinkedList<>();
 
+    protected Map<String, Long> thresholds = new ConcurrentHashMap<>();
+
+    protected volatile long overheadNanos = -1;
+
+    protected volatile boolean overheadCompensated;
+
+    private final Map<String, Integer> nameIds = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextNameId = new AtomicInteger();
+
+    private final Map<String, WatchTimer> timers = new ConcurrentHashMap<>();
+
+    private final List<Consumer<WatchItem>> observers = new CopyOnWriteArrayList<>();
+
     /**
      * Starts measuring time immediately with the given {@code name}.
      *
@@ -63,7 +97,7 @@ public class Stopwatch {
      * @see #start(String, Runnable)
      */
     public void start(String name) throws NullPointerException {
-        add(new WatchItem(name));
+        add(createWatchItem(name));
     }
 
     /**
@@ -76,7 +110,7 @@ public class Stopwatch {
      * @see #start(String)
      */
     public void start(String name, Runnable runnable) throws NullPointerException {
-        WatchItem watchItem = new WatchItem(name);
+        WatchItem watchItem = createWatchItem(name);
         add(watchItem);
 
         runnable.run();
@@ -85,7 +119,161 @@ public class Stopwatch {
     }
 
     /**
-     * Adds the given {@code watchItem} to the inner list directly.
+     * Creates a new started {@link WatchItem} with the given {@code name}.</p>
+     * Subclasses may override this method to record additional information for each task.
+     *
+     * @param name the name of the task
+     * @return a new watch item which is started at the current time
+     */
+    protected WatchItem createWatchItem(String name) {
+        return new WatchItem(name);
+    }
+
+    /**
+     * Creates a new empty stopwatch of the same kind as this stopwatch to receive the tasks moved by {@link #drain()}.</p>
+     * Subclasses which record additional information for each task should override this method so that the snapshot reports it as well.
+     *
+     * @return a new empty stopwatch
+     */
+    protected Stopwatch createSnapshot() {
+        return new Stopwatch();
+    }
+
+    /**
+     * Runs the given {@code runnable} for {@code warmups} rounds which are discarded, then measures it for {@code iterations} rounds.</p>
+     * The rounds shorter than a few microseconds are timed in batches as described in {@link RepeatResult}.
+     * Note that the total measured time is added to this stopwatch as a finished task with the given {@code name}.
+     *
+     * @param name the name of the task
+     * @param warmups the number of rounds to run before measuring
+     * @param iterations the number of rounds to measure
+     * @param runnable the runnable to measure
+     * @return the summary of the measured rounds
+     * @throws NullPointerException if the name or the runnable is {@code null}
+     * @throws IllegalArgumentException if the warmups is negative or the iterations is not positive
+     * @see #repeat(String, int, int, Consumer)
+     */
+    public RepeatResult repeat(String name, int warmups, int iterations, Runnable runnable) throws NullPointerException, IllegalArgumentException {
+        if (runnable == null) {
+            throw new NullPointerException("Runnable cannot be null.");
+        }
+
+        return repeat(name, warmups, iterations, blackhole -> runnable.run());
+    }
+
+    /**
+     * Runs the given {@code body} for {@code warmups} rounds which are discarded, then measures it for {@code iterations} rounds.</p>
+     * The body should hand its results to the given {@link Blackhole} so that the computation is not eliminated as dead code.
+     * Note that the total measured time is added to this stopwatch as a finished task with the given {@code name}.
+     *
+     * @param name the name of the task
+     * @param warmups the number of rounds to run before measuring
+     * @param iterations the number of rounds to measure
+     * @param body the body to measure
+     * @return the summary of the measured rounds
+     * @throws NullPointerException if the name or the body is {@code null}
+     * @throws IllegalArgumentException if the warmups is negative or the iterations is not positive
+     */
+    public RepeatResult repeat(String name, int warmups, int iterations, Consumer<Blackhole> body) throws NullPointerException, IllegalArgumentException {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("Iterations must be positive.");
+        }
+
+        return repeat(name, warmups, iterations, Long.MAX_VALUE, body);
+    }
+
+    /**
+     * Runs the given {@code runnable} for {@code warmups} rounds which are discarded, then measures it repeatedly until the given {@code budget} is spent.</p>
+     * Note that at least two samples are measured, and the total measured time is added to this stopwatch as a finished task with the given {@code name}.
+     *
+     * @param name the name of the task
+     * @param warmups the number of rounds to run before measuring
+     * @param budget the time to spend on measuring
+     * @param runnable the runnable to measure
+     * @return the summary of the measured rounds
+     * @throws NullPointerException if the name, the budget or the runnable is {@code null}
+     * @throws IllegalArgumentException if the warmups or the budget is negative
+     * @see #repeat(String, int, Duration, Consumer)
+     */
+    public RepeatResult repeat(String name, int warmups, Duration budget, Runnable runnable) throws NullPointerException, IllegalArgumentException {
+        if (runnable == null) {
+            throw new NullPointerException("Runnable cannot be null.");
+        }
+
+        return repeat(name, warmups, budget, blackhole -> runnable.run());
+    }
+
+    /**
+     * Runs the given {@code body} for {@code warmups} rounds which are discarded, then measures it repeatedly until the given {@code budget} is spent.</p>
+     * The body should hand its results to the given {@link Blackhole} so that the computation is not eliminated as dead code.
+     * Note that at least two samples are measured, and the total measured time is added to this stopwatch as a finished task with the given {@code name}.
+     *
+     * @param name the name of the task
+     * @param warmups the number of rounds to run before measuring
+     * @param budget the time to spend on measuring
+     * @param body the body to measure
+     * @return the summary of the measured rounds
+     * @throws NullPointerException if the name, the budget or the body is {@code null}
+     * @throws IllegalArgumentException if the warmups or the budget is negative
+     */
+    public RepeatResult repeat(String name, int warmups, Duration budget, Consumer<Blackhole> body) throws NullPointerException, IllegalArgumentException {
+        if (budget == null) {
+            throw new NullPointerException("Budget cannot be null.");
+        }
+        if (budget.isNegative()) {
+            throw new IllegalArgumentException("Budget cannot be negative.");
+        }
+
+        return repeat(name, warmups, Integer.MAX_VALUE, budget.toNanos(), body);
+    }
+
+    private RepeatResult repeat(String name, int warmups, int iterations, long budgetNanos, Consumer<Blackhole> body) {
+        if (name == null) {
+            throw new NullPointerException("Name cannot be null.");
+        }
+        if (body == null) {
+            throw new NullPointerException("Body cannot be null.");
+        }
+        if (warmups < 0) {
+            throw new IllegalArgumentException("Warmups cannot be negative.");
+        }
+
+        Blackhole blackhole = new Blackhole();
+        for (int i=0; i<warmups; i++) {
+            body.accept(blackhole);
+        }
+
+        RepeatResult.Samples samples = new RepeatResult.Samples();
+        int count = 0, batch = 1;
+        long totalNanos = 0;
+        long startEpochMilli = System.currentTimeMillis();
+        long beginNanoTime = System.nanoTime();
+        while (count < iterations && (samples.getCount() < 2 || System.nanoTime() - beginNanoTime < budgetNanos)) {
+            int calls = Math.min(batch, iterations - count);
+            long startNanoTime = System.nanoTime();
+            for (int i=0; i<calls; i++) {
+                body.accept(blackhole);
+            }
+            long elapsedNanos = System.nanoTime() - startNanoTime;
+
+            samples.add(elapsedNanos / (double) calls);
+            count += calls;
+            totalNanos += elapsedNanos;
+
+            if (elapsedNanos < MIN_SAMPLE_NANOS && batch < (1 << 30)) {
+                batch <<= 1;
+            }
+        }
+        blackhole.publish();
+
+        add(new WatchItem(name, startEpochMilli, startEpochMilli + totalNanos / 1_000_000));
+
+        return new RepeatResult(name, count, samples);
+    }
+
+    /**
+     * Adds the given {@code watchItem} to the inner list directly.</p>
+     * Note that the name of the watch item is not interned, and any name id assigned by the timer of another stopwatch is dropped.
      *
      * @param watchItem the watch item containing elapsed time information
      * @throws NullPointerException if the name of the watch item is {@code null}
@@ -95,9 +283,101 @@ public class Stopwatch {
             throw new NullPointerException("Name cannot be null.");
         }
 
+        watchItem.setNameId(-1);
+
         synchronized (watchItems) {
             watchItems.add(watchItem);
+            added(watchItem);
+        }
+    }
+
+    /**
+     * Registers the given {@code observer} to be called on the adding thread for each task added to this stopwatch afterwards.</p>
+     * The observer is called while the tasks are locked, so it must be quick, and registering it while holding the lock lets the caller take a snapshot of the existing tasks without missing or repeating any.
+     *
+     * @param observer the observer to register
+     * @see #removeObserver(Consumer)
+     */
+    void addObserver(Consumer<WatchItem> observer) {
+        observers.add(observer);
+    }
+
+    /**
+     * Unregisters the given {@code observer}.
+     *
+     * @param observer the observer to unregister
+     * @see #addObserver(Consumer)
+     */
+    void removeObserver(Consumer<WatchItem> observer) {
+        observers.remove(observer);
+    }
+
+    /**
+     * Hands the given {@code watchItem} which has just been added to the registered observers. Must be called while holding the lock of the tasks.
+     *
+     * @param watchItem the added watch item
+     */
+    void added(WatchItem watchItem) {
+        if (observers.isEmpty()) {
+            return;
+        }
+
+        for (Consumer<WatchItem> observer : observers) {
+            observer.accept(watchItem);
+        }
+    }
+
+    /**
+     * Returns the pre-registered timer of the given {@code name}, registering it if necessary.</p>
+     * The name is resolved to an interned integer id once, so that recording through the timer skips any string hashing and comparison.
+     * Note that only the names of timers are interned and they are kept for the lifetime of this stopwatch, so timers are meant for a fixed set of names rather than names built per call.
+     * The example below shows how to keep a timer for a hot path.
+     * <pre>
+     *   WatchTimer queryTimer = stopwatch.timer("db.query");
+     *
+     *   queryTimer.start();
+     *   // ...
+     *   queryTimer.stop();
+     * </pre>
+     *
+     * @param name the name of the tasks recorded by the timer
+     * @return the timer bound to the given name
+     * @throws NullPointerException if the name is {@code null}
+     * @see WatchTimer
+     */
+    public WatchTimer timer(String name) throws NullPointerException {
+        if (name == null) {
+            throw new NullPointerException("Name cannot be null.");
         }
+
+        return timers.computeIfAbsent(name, key -> new WatchTimer(this, key, nameIdOf(key, true)));
+    }
+
+    /**
+     * Returns the interned integer id of the given {@code name}.
+     *
+     * @param name the name to resolve
+     * @param register {@code true} to register the name if it is not registered yet
+     * @return the id of the name, or {@code -1} if the name is {@code null} or not registered
+     */
+    private int nameIdOf(String name, boolean register) {
+        if (name == null) {
+            return -1;
+        }
+
+        Integer nameId = register ? nameIds.computeIfAbsent(name, key -> nextNameId.getAndIncrement()) : nameIds.get(name);
+        return nameId == null ? -1 : nameId;
+    }
+
+    private boolean matches(WatchItem watchItem, String name, int nameId) {
+        if (name == null) {
+            return true;
+        }
+        if (nameId >= 0 && watchItem.getNameId() >= 0) {
+            return nameId == watchItem.getNameId();
+        }
+
+        return watchItem.getName().equals(name);
     }
 
     /**
@@ -117,10 +397,12 @@ public class Stopwatch {
      * @see #pause()
      */
     public void pause(String name) {
+        int nameId = nameIdOf(name, false);
         synchronized (watchItems) {
-            for (int i= watchItems.size()-1; i>=0; i--) {
-                WatchItem watchItem = watchItems.get(i);
-                if (name == null || watchItem.getName().equals(name)) {
+            Iterator<WatchItem> iterator = watchItems.descendingIterator();
+            while (iterator.hasNext()) {
+                WatchItem watchItem = iterator.next();
+                if (matches(watchItem, name, nameId)) {
                     if (watchItem.pause()) {
                         break;
                     }
@@ -146,10 +428,12 @@ public class Stopwatch {
      * @see #resume()
      */
     public void resume(String name) {
+        int nameId = nameIdOf(name, false);
         synchronized (watchItems) {
-            for (int i = watchItems.size() - 1; i >= 0; i--) {
-                WatchItem watchItem = watchItems.get(i);
-                if (name == null || watchItem.getName().equals(name)) {
+            Iterator<WatchItem> iterator = watchItems.descendingIterator();
+            while (iterator.hasNext()) {
+                WatchItem watchItem = iterator.next();
+                if (matches(watchItem, name, nameId)) {
                     if (watchItem.resume()) {
                         break;
                     }
@@ -158,6 +442,45 @@ public class Stopwatch {
         }
     }
 
+    /**
+     * Marks a lap with the given {@code label} on the last started task.
+     *
+     * @param label the label of the lap
+     * @throws NullPointerException if the label is {@code null}
+     * @see #lap(String, String)
+     */
+    public void lap(String label) throws NullPointerException {
+        lap(null, label);
+    }
+
+    /**
+     * Marks a lap with the given {@code label} on the last started task matching the given {@code name}. If the {@code name} is {@code null}, the lap is marked on the last started task.</p>
+     * Note that laps are printed as sub-rows of their task, followed by a {@code (stop)} sub-row with the time from the last lap to the stop of the task.
+     *
+     * @param name the name of the task to mark
+     * @param label the label of the lap
+     * @throws NullPointerException if the label is {@code null}
+     * @see WatchItem#lap(String)
+     */
+    public void lap(String name, String label) throws NullPointerException {
+        if (label == null) {
+            throw new NullPointerException("Label cannot be null.");
+        }
+
+        int nameId = nameIdOf(name, false);
+        synchronized (watchItems) {
+            Iterator<WatchItem> iterator = watchItems.descendingIterator();
+            while (iterator.hasNext()) {
+                WatchItem watchItem = iterator.next();
+                if (matches(watchItem, name, nameId)) {
+                    if (watchItem.lap(label)) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Stops the last started task.
      *
@@ -175,10 +498,12 @@ public class Stopwatch {
      * @see #stop()
      */
     public void stop(String name) {
+        int nameId = nameIdOf(name, false);
         synchronized (watchItems) {
-            for (int i= watchItems.size()-1; i>=0; i--) {
-                WatchItem watchItem = watchItems.get(i);
-                if (name == null || watchItem.getName().equals(name)) {
+            Iterator<WatchItem> iterator = watchItems.descendingIterator();
+            while (iterator.hasNext()) {
+                WatchItem watchItem = iterator.next();
+                if (matches(watchItem, name, nameId)) {
                     if (watchItem.stop()) {
                         break;
                     }
@@ -188,17 +513,209 @@ public class Stopwatch {
     }
 
     /**
-     * Returns the total elapsed time of all tasks in this stopwatch in milliseconds excluding any paused time.
+     * Sets the latency threshold of the tasks matching the given {@code name}.</p>
+     * Note that thresholds are only observed by a {@link StopwatchWatchdog} watching this stopwatch.
+     *
+     * @param name the name of the tasks
+     * @param milliseconds the threshold in milliseconds
+     * @throws NullPointerException if the name is {@code null}
+     * @throws IllegalArgumentException if the threshold is negative
+     * @see #getThreshold(String)
+     * @see #removeThreshold(String)
+     */
+    public void setThreshold(String name, long milliseconds) throws NullPointerException, IllegalArgumentException {
+        if (name == null) {
+            throw new NullPointerException("Name cannot be null.");
+        }
+        if (milliseconds < 0) {
+            throw new IllegalArgumentException("Threshold cannot be negative.");
+        }
+
+        thresholds.put(name, milliseconds);
+    }
+
+    /**
+     * Returns the latency threshold of the tasks matching the given {@code name}.
+     *
+     * @param name the name of the tasks
+     * @return the threshold in milliseconds, or {@code null} if no threshold is set
+     * @see #setThreshold(String, long)
+     */
+    public Long getThreshold(String name) {
+        return name == null ? null : thresholds.get(name);
+    }
+
+    /**
+     * Removes the latency threshold of the tasks matching the given {@code name}.
+     *
+     * @param name the name of the tasks
+     * @see #setThreshold(String, long)
+     */
+    public void removeThreshold(String name) {
+        if (name != null) {
+            thresholds.remove(name);
+        }
+    }
+
+    /**
+     * Moves all finished tasks of this stopwatch into a new stopwatch at once, leaving the unfinished tasks in place so they can still be paused, resumed and stopped.</p>
+     * This is useful to hand the recorded tasks over to another thread for reporting without blocking this stopwatch for the time of formatting.
+     * The new stopwatch is created by {@link #createSnapshot()} and carries over the calibrated overhead and whether it is compensated.
+     *
+     * @return a new stopwatch containing the finished tasks in their original order
+     * @see #print(OutputStream)
+     */
+    public Stopwatch drain() {
+        Stopwatch stopwatch = createSnapshot();
+        stopwatch.nameIds.putAll(nameIds);
+        stopwatch.nextNameId.set(nextNameId.get());
+        stopwatch.overheadNanos = overheadNanos;
+        stopwatch.overheadCompensated = overheadCompensated;
+        synchronized (watchItems) {
+            Iterator<WatchItem> iterator = watchItems.iterator();
+            while (iterator.hasNext()) {
+                WatchItem watchItem = iterator.next();
+                if (watchItem.getEndEpochMilli() != null) {
+                    stopwatch.watchItems.add(watchItem);
+                    iterator.remove();
+                }
+            }
+        }
+        return stopwatch;
+    }
+
+    /**
+     * Measures the overhead of a pair of {@code start} and {@code stop} calls of this stopwatch on the current JVM and hardware.</p>
+     * The calls are made on a scratch stopwatch creating the same kind of tasks as this stopwatch, so the tasks of this stopwatch are not affected.
+     * Once calibrated, {@link #print(OutputStream)} reports the estimated overhead and its share of the total.
+     *
+     * @return the median overhead of a pair of {@code start} and {@code stop} calls in nanoseconds
+     * @see #getOverheadNanos()
+     * @see #setOverheadCompensated(boolean)
+     */
+    public long calibrate() {
+        Stopwatch scratch = new Stopwatch() {
+            @Override
+            protected WatchItem createWatchItem(String name) {
+                return Stopwatch.this.createWatchItem(name);
+            }
+        };
+
+        int batches = 20, pairsPerBatch = 1_000;
+        long[] nanosPerPair = new long[batches];
+        for (int round=0; round<2; round++) {
+            for (int batch=0; batch<batches; batch++) {
+                long startNanoTime = System.nanoTime();
+                for (int pair=0; pair<pairsPerBatch; pair++) {
+                    scratch.start("calibration");
+                    scratch.stop("calibration");
+                }
+                nanosPerPair[batch] = (System.nanoTime() - startNanoTime) / pairsPerBatch;
+                scratch.watchItems.clear();
+            }
+        }
+        Arrays.sort(nanosPerPair);
+
+        overheadNanos = nanosPerPair[batches / 2];
+        return overheadNanos;
+    }
+
+    /**
+     * Returns the overhead of a pair of {@code start} and {@code stop} calls measured by {@link #calibrate()}.
+     *
+     * @return the overhead in nanoseconds, or {@code -1} if this stopwatch is not calibrated
+     */
+    public long getOverheadNanos() {
+        return overheadNanos;
+    }
+
+    /**
+     * Sets whether the estimated overhead of the finished tasks is subtracted from the total elapsed time.</p>
+     * Note that this has no effect until this stopwatch is calibrated. The overhead is subtracted from each finished task, so the rows of a report add up to its total.
+     * Since the tasks are measured in milliseconds, an overhead below a millisecond is only reported and never subtracted, as it would just add noise to the measured times.
+     *
+     * @param overheadCompensated {@code true} to subtract the estimated overhead
+     * @see #calibrate()
+     */
+    public void setOverheadCompensated(boolean overheadCompensated) {
+        this.overheadCompensated = overheadCompensated;
+    }
+
+    /**
+     * Returns whether the estimated overhead of the finished tasks is subtracted from the total elapsed time.
+     *
+     * @return {@code true} if the overhead is compensated
+     */
+    public boolean isOverheadCompensated() {
+        return overheadCompensated;
+    }
+
+    /**
+     * Returns the total elapsed time of all tasks in this stopwatch in milliseconds excluding any paused time.</p>
+     * Note that if the overhead is compensated, the estimated overhead of the finished tasks is subtracted from the total.
      *
      * @return the total elapsed time in milliseconds
      * @see #getTotalElapsedSeconds()
      */
     public long getTotalElapsedMilliseconds() {
-        Long totalElapsedMilliseconds;
         synchronized (watchItems) {
-            totalElapsedMilliseconds = watchItems.stream().flatMapToLong(watchItem -> LongStream.of(watchItem.getElapsedMilli() != null ? watchItem.getElapsedMilli() : 0)).sum();
+            if (isCompensating() == false) {
+                return watchItems.stream().flatMapToLong(watchItem -> LongStream.of(watchItem.getElapsedMilli() != null ? watchItem.getElapsedMilli() : 0)).sum();
+            }
+
+            return Math.round(watchItems.stream().filter(watchItem -> watchItem.getElapsedMilli() != null).mapToDouble(watchItem -> compensate(watchItem.getElapsedMilli())).sum());
         }
-        return totalElapsedMilliseconds;
+    }
+
+    private boolean isCompensating() {
+        return overheadCompensated && overheadNanos >= CLOCK_RESOLUTION_NANOS;
+    }
+
+    /**
+     * Returns the given elapsed time of a finished task, minus the estimated overhead of the task if the overhead is compensated.
+     *
+     * @param elapsedMilli the elapsed time of a finished task in milliseconds
+     * @return the elapsed time in milliseconds, which is never negative
+     * @see #setOverheadCompensated(boolean)
+     */
+    double compensate(long elapsedMilli) {
+        return compensate(elapsedMilli, 1);
+    }
+
+    /**
+     * Returns the given total elapsed time of the given number of finished tasks, minus the estimated overhead of the tasks if the overhead is compensated.</p>
+     * Every report of this stopwatch compensates the elapsed times through this method, so that their rows and totals agree.
+     *
+     * @param elapsedMilli the total elapsed time of the finished tasks in milliseconds
+     * @param count the number of the finished tasks
+     * @return the elapsed time in milliseconds, which is never negative
+     * @see #setOverheadCompensated(boolean)
+     */
+    double compensate(long elapsedMilli, long count) {
+        long overheadNanos = this.overheadNanos;
+        if (overheadCompensated && overheadNanos >= CLOCK_RESOLUTION_NANOS) {
+            return Math.max(0, elapsedMilli - count * overheadNanos / 1_000_000.0);
+        }
+        return elapsedMilli;
+    }
+
+    /**
+     * Returns the percentage, milliseconds and seconds of the estimated overhead of the given number of finished tasks for the {@code overhead} row of a report.</p>
+     * The percentage is relative to the total elapsed time as measured, since the compensated total already excludes the overhead.
+     *
+     * @param numberOfFinishedWatchItems the number of the finished tasks
+     * @param measuredTotalElapsedMilliseconds the total elapsed time of the finished tasks as measured in milliseconds
+     * @return the values of the overhead row, or {@code null} if this stopwatch is not calibrated
+     */
+    private String[] getOverheadValues(long numberOfFinishedWatchItems, long measuredTotalElapsedMilliseconds) {
+        long overheadNanos = this.overheadNanos;
+        if (overheadNanos < 0) {
+            return null;
+        }
+
+        double overheadMilliseconds = numberOfFinishedWatchItems * overheadNanos / 1_000_000.0;
+        String percentage = measuredTotalElapsedMilliseconds == 0 ? "" : NumberFormatter.percentage(Math.min(100, (overheadMilliseconds / measuredTotalElapsedMilliseconds) * 100));
+        return new String[] { percentage, NumberFormatter.milliseconds(overheadMilliseconds), NumberFormatter.seconds(overheadMilliseconds / 1000.0) };
     }
 
     /**
@@ -211,6 +728,39 @@ public class Stopwatch {
         return getTotalElapsedMilliseconds() / 1000.0;
     }
 
+    /**
+     * Returns the statistics of all finished tasks in this stopwatch grouped by name in the order in which each name first appears.</p>
+     * The tasks started by a {@link WatchTimer} are grouped by the id of their name, so each name is hashed only once.
+     * Note that unlike {@link #print()}, this method does not clear any tasks.
+     *
+     * @return a map of the task name to its statistics
+     * @see WatchStatistics
+     */
+    public Map<String, WatchStatistics> getStatistics() {
+        Map<String, WatchStatistics> statistics = new LinkedHashMap<>();
+        synchronized (watchItems) {
+            WatchStatistics[] statisticsByNameId = new WatchStatistics[nextNameId.get()];
+            for (WatchItem watchItem : watchItems) {
+                Long elapsedMilli = watchItem.getElapsedMilli();
+                if (elapsedMilli == null) {
+                    continue;
+                }
+
+                int nameId = watchItem.getNameId();
+                if (nameId < 0 || nameId >= statisticsByNameId.length) {
+                    statistics.computeIfAbsent(watchItem.getName(), WatchStatistics::new).add(elapsedMilli);
+                    continue;
+                }
+
+                if (statisticsByNameId[nameId] == null) {
+                    statisticsByNameId[nameId] = statistics.computeIfAbsent(watchItem.getName(), WatchStatistics::new);
+                }
+                statisticsByNameId[nameId].add(elapsedMilli);
+            }
+        }
+        return statistics;
+    }
+
     /**
      * Prints the result of the stopwatch as a table to the default output stream.</p>
      * the following table format is used:
@@ -244,7 +794,8 @@ public class Stopwatch {
      *   |                |       |         |        |
      *   |          total |  100% | 2,074ms | 2.074s |
      * </pre>
-     * Note that all tasks are cleared after printing.
+     * Note that all tasks are cleared after printing, and the output stream is flushed but not closed.
+     * If this stopwatch is calibrated, an {@code overhead} row with the estimated overhead of the finished tasks is added below the total, and the rows are compensated as the total if the overhead is compensated.
      *
      * @param outputStream the output stream to print
      * @throws NullPointerException if the output stream is null
@@ -260,63 +811,211 @@ public class Stopwatch {
                 return;
             }
 
-            try (OutputStreamWriter writer = new OutputStreamWriter(outputStream)) {
-                int maxLengthOfName = watchItems.stream().flatMapToInt(watchItem -> IntStream.of(watchItem.getName().length())).max().getAsInt();
-                maxLengthOfName = Math.max(maxLengthOfName, Math.max("name".length(), "total".length()));
+            long totalElapsedMilliseconds = getTotalElapsedMilliseconds();
+            double totalElapsedSeconds = getTotalElapsedSeconds();
+            long numberOfFinishedWatchItems = 0, measuredTotalElapsedMilliseconds = 0;
+            for (WatchItem watchItem : watchItems) {
+                Long elapsedMilli = watchItem.getElapsedMilli();
+                if (elapsedMilli != null) {
+                    numberOfFinishedWatchItems++;
+                    measuredTotalElapsedMilliseconds += elapsedMilli;
+                }
+            }
+
+            String[] additionalColumns = getAdditionalColumns();
+            List<WatchItem> printedWatchItems = additionalColumns.length == 0 ? Collections.emptyList() : new ArrayList<>(watchItems);
 
-                long totalElapsedMilliseconds = getTotalElapsedMilliseconds();
+            Table table = new Table(Table.join(new String[] { "name", "%", "ms", "s" }, additionalColumns));
+            while (watchItems.isEmpty() == false) {
+                WatchItem watchItem = watchItems.poll();
+                String name = watchItem.getName();
 
-                int maxLengthOfPercentage = watchItems.stream().flatMapToInt(watchItem -> IntStream.of(watchItem.getElapsedMilli() == null ? 0 : NumberFormatter.percentage((watchItem.getElapsedMilli() / (totalElapsedMilliseconds * 1.0)) * 100).length())).max().getAsInt();
-                maxLengthOfPercentage = Math.max(maxLengthOfPercentage, "100%".length());
+                String percentage;
+                String elapsedMilliseconds;
+                String elapsedSeconds;
 
-                int maxLengthOfElapsedMilliseconds = watchItems.stream().flatMapToInt(watchItem -> IntStream.of(watchItem.getElapsedMilli() == null ? 0 : NumberFormatter.milliseconds(watchItem.getElapsedMilli()).length())).max().getAsInt();
-                maxLengthOfElapsedMilliseconds = Math.max(maxLengthOfElapsedMilliseconds, Math.max(NOT_AVAILABLE.length(), NumberFormatter.milliseconds(totalElapsedMilliseconds).length()));
+                Long elapsedMilli = watchItem.getElapsedMilli();
+                if (elapsedMilli == null) {
+                    percentage = "";
+                    elapsedMilliseconds = NOT_AVAILABLE;
+                    elapsedSeconds = NOT_AVAILABLE;
+                } else {
+                    double compensatedElapsedMilli = compensate(elapsedMilli);
+                    percentage = NumberFormatter.percentage((compensatedElapsedMilli / (totalElapsedMilliseconds * 1.0)) * 100);
+                    elapsedMilliseconds = NumberFormatter.milliseconds(Math.round(compensatedElapsedMilli));
+                    elapsedSeconds = NumberFormatter.seconds(compensatedElapsedMilli / 1000.0);
+                }
+
+                table.addRow(Table.join(new String[] { name, percentage, elapsedMilliseconds, elapsedSeconds }, getAdditionalValues(watchItem)));
 
-                double totalElapsedSeconds = getTotalElapsedSeconds();
-                int maxLengthOfElapsedSeconds = watchItems.stream().flatMapToInt(watchItem -> IntStream.of(watchItem.getElapsedMilli() == null ? 0 : NumberFormatter.seconds(watchItem.getElapsedMilli() / 1000.0).length())).max().getAsInt();
-                maxLengthOfElapsedSeconds = Math.max(maxLengthOfElapsedSeconds, Math.max(NOT_AVAILABLE.length(), NumberFormatter.seconds(totalElapsedSeconds).length()));
+                long lapsMilli = 0;
+                for (int i=0, j=watchItem.getLapCount(); i<j; i++) {
+                    long lapMilli = watchItem.getLapMilli(i);
+                    lapsMilli += lapMilli;
+                    table.addRow("- ".concat(watchItem.getLapLabel(i)), NumberFormatter.percentage((lapMilli / (totalElapsedMilliseconds * 1.0)) * 100), NumberFormatter.milliseconds(lapMilli), NumberFormatter.seconds(lapMilli / 1000.0));
+                }
+                if (watchItem.getLapCount() > 0 && elapsedMilli != null) {
+                    long lapMilli = elapsedMilli - lapsMilli;
+                    table.addRow("- ".concat(LAST_LAP_LABEL), NumberFormatter.percentage((lapMilli / (totalElapsedMilliseconds * 1.0)) * 100), NumberFormatter.milliseconds(lapMilli), NumberFormatter.seconds(lapMilli / 1000.0));
+                }
+            }
+            table.addFooter(Table.join(new String[] { "total", "100%", NumberFormatter.milliseconds(totalElapsedMilliseconds), NumberFormatter.seconds(totalElapsedSeconds) }, getAdditionalTotals(printedWatchItems)));
 
-                String title = String.format("| %s | %s | %s | %s |\n", fillWithWhitespace("name", maxLengthOfName), fillWithWhitespace("%", maxLengthOfPercentage), fillWithWhitespace("ms", maxLengthOfElapsedMilliseconds), fillWithWhitespace("s", maxLengthOfElapsedSeconds));
-                writer.write(title);
+            String[] overheadValues = getOverheadValues(numberOfFinishedWatchItems, measuredTotalElapsedMilliseconds);
+            if (overheadValues != null) {
+                table.addFooter(Table.join(new String[] { "overhead" }, overheadValues));
+            }
+
+            table.print(outputStream);
+        }
+    }
 
-                String separator = String.format("%s\n", createSeparator(maxLengthOfName, maxLengthOfPercentage, maxLengthOfElapsedMilliseconds, maxLengthOfElapsedSeconds));
-                writer.write(separator);
+    /**
+     * Returns the names of the columns which are added to the right of the columns of {@link #print(OutputStream)}.</p>
+     * Subclasses which record additional information for each task may override this method together with {@link #getAdditionalValues(WatchItem)} and {@link #getAdditionalTotals(List)}.
+     *
+     * @return the names of the additional columns, which are none by default
+     */
+    protected String[] getAdditionalColumns() {
+        return new String[0];
+    }
 
-                while (watchItems.isEmpty() == false) {
-                    WatchItem watchItem = watchItems.poll();
-                    String name = watchItem.getName();
+    /**
+     * Returns the values of the additional columns for the given {@code watchItem}.</p>
+     * Note that the additional columns of the lap and overhead rows are left empty.
+     *
+     * @param watchItem the task of the row
+     * @return the value of each additional column
+     * @see #getAdditionalColumns()
+     */
+    protected String[] getAdditionalValues(WatchItem watchItem) {
+        return new String[0];
+    }
 
-                    String percentage;
-                    String elapsedMilliseconds;
-                    String elapsedSeconds;
+    /**
+     * Returns the values of the additional columns for the total row of the given {@code watchItems}.
+     *
+     * @param watchItems the printed tasks
+     * @return the value of each additional column
+     * @see #getAdditionalColumns()
+     */
+    protected String[] getAdditionalTotals(List<WatchItem> watchItems) {
+        return new String[0];
+    }
 
+    /**
+     * Prints the result of the stopwatch as a table to the given output stream according to the given {@code options}, which keeps the report readable for a very large number of tasks.</p>
+     * The example below shows the ten names which took the most time:
+     * <pre>
+     *   |         name |  count |     % |       ms |       s |   max |
+     *   |--------------|--------|-------|----------|---------|-------|
+     *   |        query | 100000 | 80.0% |  8,000ms |  8.000s |  90ms |
+     *   |        fetch |    120 | 15.0% |  1,500ms |  1.500s | 210ms |
+     *   | other (2000) |   2000 |  5.0% |    500ms |  0.500s |   4ms |
+     *   |              |        |       |          |         |       |
+     *   |        total | 102120 |  100% | 10,000ms | 10.000s | 210ms |
+     * </pre>
+     * Note that the finished tasks are removed after printing, and the output stream is flushed but not closed.
+     * The tasks which are still running are not reported and stay in this stopwatch, so they can still be stopped and reported later.
+     * The elapsed times are compensated and the {@code overhead} row is added as in {@link #print(OutputStream)}.
+     * When the report is grouped by name, the finished tasks are moved into a {@link ColumnarWatchStore} in a single pass and aggregated from its columns.
+     *
+     * @param outputStream the output stream to print
+     * @param options the options of the report
+     * @throws NullPointerException if the output stream or the options is null
+     * @throws RuntimeException if the output stream cannot be written
+     * @see ReportOptions
+     */
+    public void print(OutputStream outputStream, ReportOptions options) {
+        if (outputStream == null) {
+            throw new NullPointerException("Output stream cannot be null.");
+        }
+        if (options == null) {
+            throw new NullPointerException("Options cannot be null.");
+        }
+
+        synchronized (watchItems) {
+            if (watchItems.isEmpty()) {
+                return;
+            }
+
+            Report report;
+            if (options.isGroupByName()) {
+                // the finished tasks are moved into primitive columns in a single pass, so the total and the statistics below scan arrays instead of the linked tasks
+                ColumnarWatchStore watchStore = new ColumnarWatchStore();
+                Map<String, Map<String, Long>> lapsByName = new HashMap<>();
+                double compensatedTotalElapsedMilliseconds = 0;
+                Iterator<WatchItem> iterator = watchItems.iterator();
+                while (iterator.hasNext()) {
+                    WatchItem watchItem = iterator.next();
                     Long elapsedMilli = watchItem.getElapsedMilli();
                     if (elapsedMilli == null) {
-                        percentage = "";
-                        elapsedMilliseconds = NOT_AVAILABLE;
-                        elapsedSeconds = NOT_AVAILABLE;
-                    } else {
-                        percentage = NumberFormatter.percentage((elapsedMilli / (totalElapsedMilliseconds * 1.0)) * 100);
-                        elapsedMilliseconds = NumberFormatter.milliseconds(elapsedMilli);
-                        elapsedSeconds = NumberFormatter.seconds(elapsedMilli / 1000.0);
+                        continue;
                     }
 
-                    writer.write(String.format("| %s | %s | %s | %s |\n", fillWithWhitespace(name, maxLengthOfName), fillWithWhitespace(percentage, maxLengthOfPercentage), fillWithWhitespace(elapsedMilliseconds, maxLengthOfElapsedMilliseconds), fillWithWhitespace(elapsedSeconds, maxLengthOfElapsedSeconds)));
+                    watchStore.add(watchItem);
+                    compensatedTotalElapsedMilliseconds += compensate(elapsedMilli);
+                    if (watchItem.getLapCount() > 0) {
+                        lapsByName.put(watchItem.getName(), addLaps(lapsByName.get(watchItem.getName()), watchItem));
+                    }
+                    iterator.remove();
                 }
 
-                String emptyRow = String.format("%s\n", createEmptyRow(maxLengthOfName, maxLengthOfPercentage, maxLengthOfElapsedMilliseconds, maxLengthOfElapsedSeconds));
-                writer.write(emptyRow);
-
-                String total = String.format("| %s | %s | %s | %s |\n", fillWithWhitespace("total", maxLengthOfName), fillWithWhitespace("100%", maxLengthOfPercentage), fillWithWhitespace(NumberFormatter.milliseconds(totalElapsedMilliseconds), maxLengthOfElapsedMilliseconds), fillWithWhitespace(NumberFormatter.seconds(totalElapsedSeconds), maxLengthOfElapsedSeconds));
-                writer.write(total);
+                long measuredTotalElapsedMilliseconds = watchStore.getTotalElapsedMilliseconds();
+                report = new Report(options, isCompensating() ? Math.round(compensatedTotalElapsedMilliseconds) : measuredTotalElapsedMilliseconds);
+                for (WatchStatistics watchStatistics : watchStore.getStatistics().values()) {
+                    report.offer(watchStatistics.getName(), watchStatistics.getCount(), Math.round(compensate(watchStatistics.getTotalElapsedMilli(), watchStatistics.getCount())), Math.round(compensate(watchStatistics.getMaxElapsedMilli())), lapsByName.get(watchStatistics.getName()));
+                }
+                report.setOverheadValues(getOverheadValues(watchStore.size(), measuredTotalElapsedMilliseconds));
+            } else {
+                long numberOfFinishedWatchItems = 0, measuredTotalElapsedMilliseconds = 0;
+                for (WatchItem watchItem : watchItems) {
+                    Long elapsedMilli = watchItem.getElapsedMilli();
+                    if (elapsedMilli != null) {
+                        numberOfFinishedWatchItems++;
+                        measuredTotalElapsedMilliseconds += elapsedMilli;
+                    }
+                }
 
-                writer.flush();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+                report = new Report(options, getTotalElapsedMilliseconds());
+                for (WatchItem watchItem : watchItems) {
+                    Long elapsedMilli = watchItem.getElapsedMilli();
+                    if (elapsedMilli != null) {
+                        long compensatedElapsedMilli = Math.round(compensate(elapsedMilli));
+                        report.offer(watchItem.getName(), 1, compensatedElapsedMilli, compensatedElapsedMilli, watchItem.getLapCount() > 0 ? addLaps(null, watchItem) : null);
+                    }
+                }
+                report.setOverheadValues(getOverheadValues(numberOfFinishedWatchItems, measuredTotalElapsedMilliseconds));
+                watchItems.removeIf(watchItem -> watchItem.getEndEpochMilli() != null);
             }
+
+            report.toTable().print(outputStream);
         }
     }
 
+    /**
+     * Adds the laps of the given finished {@code watchItem} to the given {@code laps} by label, including the last lap from the last marked lap to the stop.
+     *
+     * @param laps the elapsed time of each lap label in milliseconds, or {@code null} to create a new map
+     * @param watchItem the finished task
+     * @return the given laps, or a new map if it is {@code null}
+     */
+    private static Map<String, Long> addLaps(Map<String, Long> laps, WatchItem watchItem) {
+        if (laps == null) {
+            laps = new LinkedHashMap<>();
+        }
+
+        long lapsMilli = 0;
+        for (int i=0, j=watchItem.getLapCount(); i<j; i++) {
+            long lapMilli = watchItem.getLapMilli(i);
+            lapsMilli += lapMilli;
+            laps.merge(watchItem.getLapLabel(i), lapMilli, Long::sum);
+        }
+        laps.merge(LAST_LAP_LABEL, watchItem.getElapsedMilli() - lapsMilli, Long::sum);
+
+        return laps;
+    }
+
     /**
      * Returns the value with whitespace filled in to the left
      *
@@ -325,11 +1024,7 @@ public class Stopwatch {
      * @return a string representation of the value with whitespace filled in to the left
      */
     protected String fillWithWhitespace(String value, int max) {
-        int count = max - value.length();
-        for (int i=0; i<count; i++) {
-            value = " ".concat(value);
-        }
-        return value;
+        return Table.fillWithWhitespace(value, max);
     }
 
     /**
@@ -339,19 +1034,7 @@ public class Stopwatch {
      * @return a string which is used to separator for the table header
      */
     protected String createSeparator(int... lengthOfColumns) {
-        String separator = "|-";
-        for (int i=0, j=lengthOfColumns.length; i<j; i++) {
-            int lengthOfColumn = lengthOfColumns[i];
-            for (int k=0; k<lengthOfColumn; k++) {
-                separator = separator.concat("-");
-            }
-            if (i < j-1) {
-                separator = separator.concat("-|-");
-            }
-        }
-        separator = separator.concat("-|");
-
-        return separator;
+        return Table.createSeparator(lengthOfColumns);
     }
 
     /**
@@ -361,7 +1044,7 @@ public class Stopwatch {
      * @return a string which is used to create an empty row
      */
     protected String createEmptyRow(int... lengthOfColumns) {
-        return createSeparator(lengthOfColumns).replaceAll("-", " ");
+        return Table.createEmptyRow(lengthOfColumns);
     }
 
 }
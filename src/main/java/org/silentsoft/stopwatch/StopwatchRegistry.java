@@ -0,0 +1,224 @@
+package org.silentsoft.stopwatch;
+
+import java.io.Closeable;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is used to keep a {@link Stopwatch} per thread and to aggregate the finished ones into a process-wide view.</p>
+ * Each thread records into its own stopwatch without any contention, and {@link #release()} hands the stopwatch of the current thread over to a background executor which merges its finished tasks into the per-name statistics.
+ * The example below shows how to measure the time of each request.
+ * <pre>
+ *   StopwatchRegistry registry = new StopwatchRegistry();
+ *
+ *   // for each request
+ *   registry.current().start("query");
+ *   // ...
+ *   registry.current().stop();
+ *   registry.release();
+ *
+ *   // at any time
+ *   registry.print();
+ *
+ *   // on shutdown
+ *   registry.close();
+ * </pre>
+ * and the output is as follows:
+ * <pre>
+ *   |  name | count |    % |      ms |      s |
+ *   |-------|-------|------|---------|--------|
+ *   | query |    42 | 100% | 1,234ms | 1.234s |
+ *   |       |       |      |         |        |
+ *   | total |    42 | 100% | 1,234ms | 1.234s |
+ * </pre>
+ *
+ * @see #current()
+ * @see #release()
+ * @see #getStatistics()
+ * @see #print()
+ * @see #close()
+ */
+public class StopwatchRegistry implements Closeable {
+
+    private final ThreadLocal<Stopwatch> stopwatches = new ThreadLocal<>();
+
+    private final Map<String, WatchStatistics> statistics = new LinkedHashMap<>();
+
+    private final Executor executor;
+
+    private final ExecutorService ownedExecutorService;
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a new {@link StopwatchRegistry} which merges the released stopwatches on a single background daemon thread.</p>
+     * Note that the thread is owned by this registry and stopped by {@link #close()}.
+     *
+     * @see #StopwatchRegistry(Executor)
+     */
+    public StopwatchRegistry() {
+        this.ownedExecutorService = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stopwatch-registry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor = ownedExecutorService;
+    }
+
+    /**
+     * Creates a new {@link StopwatchRegistry} which merges the released stopwatches on the given {@code executor}.</p>
+     * Note that the executor is owned by the caller, so {@link #close()} does not shut it down.
+     *
+     * @param executor the executor used to merge the released stopwatches
+     * @throws NullPointerException if the executor is {@code null}
+     */
+    public StopwatchRegistry(Executor executor) throws NullPointerException {
+        if (executor == null) {
+            throw new NullPointerException("Executor cannot be null.");
+        }
+
+        this.executor = executor;
+        this.ownedExecutorService = null;
+    }
+
+    /**
+     * Creates the stopwatch used by a thread which does not have one yet.
+     *
+     * @return a new stopwatch
+     */
+    protected Stopwatch createStopwatch() {
+        return new Stopwatch();
+    }
+
+    /**
+     * Returns the stopwatch of the current thread, creating it if necessary.
+     *
+     * @return the stopwatch bound to the current thread
+     */
+    public Stopwatch current() {
+        Stopwatch stopwatch = stopwatches.get();
+        if (stopwatch == null) {
+            stopwatch = createStopwatch();
+            stopwatches.set(stopwatch);
+        }
+        return stopwatch;
+    }
+
+    /**
+     * Detaches the stopwatch from the current thread and merges its finished tasks into the statistics asynchronously.</p>
+     * Note that unfinished tasks are discarded, and the next call to {@link #current()} on this thread returns a new stopwatch.
+     * If the current thread has no stopwatch, nothing is merged. Once this registry is closed, the stopwatch is merged on the current thread instead.
+     */
+    public void release() {
+        Stopwatch stopwatch = stopwatches.get();
+        if (stopwatch == null) {
+            return;
+        }
+        stopwatches.remove();
+
+        if (closed) {
+            merge(stopwatch);
+            return;
+        }
+
+        try {
+            executor.execute(() -> merge(stopwatch));
+        } catch (RejectedExecutionException e) {
+            merge(stopwatch);
+        }
+    }
+
+    /**
+     * Merges the finished tasks of the given {@code stopwatch} into the statistics.
+     *
+     * @param stopwatch the stopwatch to merge
+     */
+    protected void merge(Stopwatch stopwatch) {
+        Map<String, WatchStatistics> statisticsOfStopwatch = stopwatch.getStatistics();
+        synchronized (statistics) {
+            for (WatchStatistics watchStatistics : statisticsOfStopwatch.values()) {
+                statistics.computeIfAbsent(watchStatistics.getName(), WatchStatistics::new).merge(watchStatistics);
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the statistics merged so far grouped by name in the order in which each name first appears.
+     *
+     * @return a map of the task name to its statistics
+     */
+    public Map<String, WatchStatistics> getStatistics() {
+        Map<String, WatchStatistics> snapshot = new LinkedHashMap<>();
+        synchronized (statistics) {
+            for (WatchStatistics watchStatistics : statistics.values()) {
+                snapshot.put(watchStatistics.getName(), watchStatistics.copy());
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Clears all statistics merged so far.
+     */
+    public void clear() {
+        synchronized (statistics) {
+            statistics.clear();
+        }
+    }
+
+    /**
+     * Stops the background thread which merges the released stopwatches after merging the stopwatches released so far.</p>
+     * Note that an executor given to {@link #StopwatchRegistry(Executor)} is owned by the caller and is not shut down.
+     */
+    @Override
+    public void close() {
+        closed = true;
+
+        if (ownedExecutorService != null) {
+            ownedExecutorService.shutdown();
+            try {
+                ownedExecutorService.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Prints the statistics merged so far as a table to the default output stream.
+     *
+     * @see #print(OutputStream)
+     * @see System#out
+     */
+    public void print() {
+        print(System.out);
+    }
+
+    /**
+     * Prints the statistics merged so far as a table to the given output stream.</p>
+     * Note that unlike {@link Stopwatch#print(OutputStream)}, the statistics are not cleared after printing. The output stream is flushed but not closed.
+     *
+     * @param outputStream the output stream to print
+     * @throws NullPointerException if the output stream is null
+     * @throws RuntimeException if the output stream cannot be written
+     */
+    public void print(OutputStream outputStream) {
+        if (outputStream == null) {
+            throw new NullPointerException("Output stream cannot be null.");
+        }
+
+        Map<String, WatchStatistics> snapshot = getStatistics();
+        if (snapshot.isEmpty()) {
+            return;
+        }
+
+        Table.of(snapshot.values()).print(outputStream);
+    }
+
+}
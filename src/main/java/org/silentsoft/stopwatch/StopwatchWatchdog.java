@@ -0,0 +1,162 @@
+package org.silentsoft.stopwatch;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * This class is used to report the tasks of a {@link Stopwatch} which stay open past their threshold, even before they stop.</p>
+ * The watchdog keeps track of the tasks which are added to the stopwatch after it is created while their name has a threshold set by {@link Stopwatch#setThreshold(String, long)}, together with the thread which added them.
+ * Each check only scans those tasks, and forgets the ones which have finished, so neither the other tasks nor the finished ones cost anything.
+ * For each task exceeding its threshold, the stack of the thread which added the task is captured and handed to the {@link Listener} exactly once.
+ * The example below shows how to watch slow queries.
+ * <pre>
+ *   Stopwatch stopwatch = new Stopwatch();
+ *   stopwatch.setThreshold("query", 500);
+ *
+ *   StopwatchWatchdog watchdog = new StopwatchWatchdog(stopwatch, (watchItem, stackTrace) -&gt; {
+ *       // log the stack trace
+ *   });
+ *   watchdog.start(100);
+ *   // ...
+ *   watchdog.close();
+ * </pre>
+ *
+ * @see #start(long)
+ * @see #check()
+ */
+public class StopwatchWatchdog implements Closeable {
+
+    /**
+     * This interface is used to receive the tasks exceeding their threshold.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Called when the given {@code watchItem} has stayed open past its threshold.</p>
+         * Note that this method is called on the thread of the watchdog, not on the thread of the task.
+         *
+         * @param watchItem the task exceeding its threshold
+         * @param stackTrace the stack of the thread which added the task at the time of detection
+         */
+        void onThresholdExceeded(WatchItem watchItem, StackTraceElement[] stackTrace);
+
+    }
+
+    private final Stopwatch stopwatch;
+
+    private final Listener listener;
+
+    private final Map<WatchItem, Thread> watchedWatchItems = new ConcurrentHashMap<>();
+
+    private final Consumer<WatchItem> observer = this::watch;
+
+    private ScheduledExecutorService scheduledExecutorService;
+
+    /**
+     * Creates a new {@link StopwatchWatchdog} for the given {@code stopwatch}.
+     *
+     * @param stopwatch the stopwatch to watch
+     * @param listener the listener to receive the tasks exceeding their threshold
+     * @throws NullPointerException if the stopwatch or the listener is {@code null}
+     */
+    public StopwatchWatchdog(Stopwatch stopwatch, Listener listener) throws NullPointerException {
+        if (stopwatch == null) {
+            throw new NullPointerException("Stopwatch cannot be null.");
+        }
+        if (listener == null) {
+            throw new NullPointerException("Listener cannot be null.");
+        }
+
+        this.stopwatch = stopwatch;
+        this.listener = listener;
+
+        stopwatch.addObserver(observer);
+    }
+
+    private void watch(WatchItem watchItem) {
+        if (watchItem.getEndEpochMilli() == null && stopwatch.thresholds.containsKey(watchItem.getName())) {
+            watchedWatchItems.put(watchItem, Thread.currentThread());
+        }
+    }
+
+    /**
+     * Starts checking the stopwatch periodically on a background daemon thread.
+     *
+     * @param periodMilliseconds the period between checks in milliseconds
+     * @throws IllegalArgumentException if the period is not positive
+     * @throws IllegalStateException if this watchdog is already started
+     * @see #check()
+     * @see #close()
+     */
+    public synchronized void start(long periodMilliseconds) throws IllegalArgumentException, IllegalStateException {
+        if (periodMilliseconds <= 0) {
+            throw new IllegalArgumentException("Period must be positive.");
+        }
+        if (scheduledExecutorService != null) {
+            throw new IllegalStateException("Watchdog is already started.");
+        }
+
+        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stopwatch-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduledExecutorService.scheduleAtFixedRate(this::check, periodMilliseconds, periodMilliseconds, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks the watched tasks once and reports those exceeding their threshold for the first time.</p>
+     * Note that any exception thrown by the listener is swallowed so that it does not stop the periodic checks.
+     */
+    public void check() {
+        if (watchedWatchItems.isEmpty()) {
+            return;
+        }
+
+        long currentEpochMilli = System.currentTimeMillis();
+        Iterator<Map.Entry<WatchItem, Thread>> iterator = watchedWatchItems.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<WatchItem, Thread> entry = iterator.next();
+            WatchItem watchItem = entry.getKey();
+
+            Long threshold = stopwatch.getThreshold(watchItem.getName());
+            Long runningMilli = watchItem.getRunningMilli(currentEpochMilli);
+            if (threshold == null || runningMilli == null) {
+                iterator.remove();
+                continue;
+            }
+
+            if (runningMilli > threshold) {
+                iterator.remove();
+
+                try {
+                    listener.onThresholdExceeded(watchItem, entry.getValue().getStackTrace());
+                } catch (Exception e) {
+                    // the listener must not stop the watchdog
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops checking the stopwatch periodically, and stops watching the tasks added to it.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduledExecutorService != null) {
+            scheduledExecutorService.shutdownNow();
+            scheduledExecutorService = null;
+        }
+
+        stopwatch.removeObserver(observer);
+        watchedWatchItems.clear();
+    }
+
+}
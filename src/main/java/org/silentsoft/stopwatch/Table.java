@@ -0,0 +1,224 @@
+package org.silentsoft.stopwatch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This class is used to render rows of values as a right-aligned table.</p>
+ * The example below shows the layout of the rendered table.
+ * <pre>
+ *   |  name |    % |      ms |      s |
+ *   |-------|------|---------|--------|
+ *   |  test | 100% | 1,000ms | 1.000s |
+ *   |       |      |         |        |
+ *   | total | 100% | 1,000ms | 1.000s |
+ * </pre>
+ * Note that the empty row and the footer rows are only rendered if any footer row has been added.
+ */
+class Table {
+
+    private final String[] header;
+
+    private final List<String[]> rows = new ArrayList<>();
+
+    private final List<String[]> footers = new ArrayList<>();
+
+    /**
+     * Creates a new {@link Table} with the given column names.
+     *
+     * @param header the name of each column
+     */
+    Table(String... header) {
+        this.header = header;
+    }
+
+    /**
+     * Creates a new {@link Table} listing the count, share and total elapsed time of each of the given statistics.
+     * <pre>
+     *   |   name | count |     % |      ms |      s |
+     *   |--------|-------|-------|---------|--------|
+     *   | test-1 |     2 | 75.0% | 1,500ms | 1.500s |
+     *   | test-2 |     1 | 25.0% |   500ms | 0.500s |
+     *   |        |       |       |         |        |
+     *   |  total |     3 |  100% | 2,000ms | 2.000s |
+     * </pre>
+     *
+     * @param statistics the statistics to list
+     * @return a new table
+     */
+    static Table of(Collection<WatchStatistics> statistics) {
+        long totalCount = statistics.stream().mapToLong(WatchStatistics::getCount).sum();
+        long totalElapsedMilliseconds = statistics.stream().mapToLong(WatchStatistics::getTotalElapsedMilli).sum();
+
+        Table table = new Table("name", "count", "%", "ms", "s");
+        for (WatchStatistics watchStatistics : statistics) {
+            long elapsedMilli = watchStatistics.getTotalElapsedMilli();
+            double percentage = totalElapsedMilliseconds == 0 ? 0 : (elapsedMilli / (totalElapsedMilliseconds * 1.0)) * 100;
+            table.addRow(watchStatistics.getName(), String.valueOf(watchStatistics.getCount()), NumberFormatter.percentage(percentage), NumberFormatter.milliseconds(elapsedMilli), NumberFormatter.seconds(elapsedMilli / 1000.0));
+        }
+        table.addFooter("total", String.valueOf(totalCount), "100%", NumberFormatter.milliseconds(totalElapsedMilliseconds), NumberFormatter.seconds(totalElapsedMilliseconds / 1000.0));
+
+        return table;
+    }
+
+    /**
+     * Returns the given {@code values} followed by the given {@code additionalValues}.
+     *
+     * @param values the values of the leading columns
+     * @param additionalValues the values of the additional columns
+     * @return a new array containing both values
+     */
+    static String[] join(String[] values, String[] additionalValues) {
+        if (additionalValues.length == 0) {
+            return values;
+        }
+
+        String[] joined = Arrays.copyOf(values, values.length + additionalValues.length);
+        System.arraycopy(additionalValues, 0, joined, values.length, additionalValues.length);
+        return joined;
+    }
+
+    /**
+     * Adds a row to the body of this table.
+     *
+     * @param values the value of each column
+     */
+    void addRow(String... values) {
+        rows.add(values);
+    }
+
+    /**
+     * Adds a row to the footer of this table.
+     *
+     * @param values the value of each column
+     */
+    void addFooter(String... values) {
+        footers.add(values);
+    }
+
+    /**
+     * Returns whether this table has no rows in its body.
+     *
+     * @return {@code true} if no rows have been added
+     */
+    boolean isEmpty() {
+        return rows.isEmpty();
+    }
+
+    /**
+     * Prints this table to the given output stream and flushes it without closing.
+     *
+     * @param outputStream the output stream to print
+     * @throws RuntimeException if the output stream cannot be written
+     */
+    void print(OutputStream outputStream) {
+        try {
+            Writer writer = new OutputStreamWriter(outputStream);
+            write(writer);
+
+            writer.flush();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes this table to the given writer.
+     *
+     * @param writer the writer to write
+     * @throws IOException if the writer cannot be written
+     */
+    void write(Writer writer) throws IOException {
+        int[] lengthOfColumns = new int[header.length];
+        measure(lengthOfColumns, header);
+        for (String[] row : rows) {
+            measure(lengthOfColumns, row);
+        }
+        for (String[] footer : footers) {
+            measure(lengthOfColumns, footer);
+        }
+
+        writer.write(createRow(lengthOfColumns, header));
+        writer.write(String.format("%s\n", createSeparator(lengthOfColumns)));
+        for (String[] row : rows) {
+            writer.write(createRow(lengthOfColumns, row));
+        }
+        if (footers.isEmpty() == false) {
+            writer.write(String.format("%s\n", createEmptyRow(lengthOfColumns)));
+            for (String[] footer : footers) {
+                writer.write(createRow(lengthOfColumns, footer));
+            }
+        }
+    }
+
+    private void measure(int[] lengthOfColumns, String[] values) {
+        for (int i=0, j=Math.min(lengthOfColumns.length, values.length); i<j; i++) {
+            lengthOfColumns[i] = Math.max(lengthOfColumns[i], values[i].length());
+        }
+    }
+
+    private String createRow(int[] lengthOfColumns, String[] values) {
+        StringBuilder builder = new StringBuilder("|");
+        for (int i=0; i<lengthOfColumns.length; i++) {
+            builder.append(' ').append(fillWithWhitespace(i < values.length ? values[i] : "", lengthOfColumns[i])).append(" |");
+        }
+        return builder.append('\n').toString();
+    }
+
+    /**
+     * Returns the value with whitespace filled in to the left
+     *
+     * @param value the value to fill with whitespace
+     * @param max the maximum length of the value
+     * @return a string representation of the value with whitespace filled in to the left
+     */
+    static String fillWithWhitespace(String value, int max) {
+        int count = max - value.length();
+        if (count <= 0) {
+            return value;
+        }
+
+        StringBuilder builder = new StringBuilder(max);
+        for (int i=0; i<count; i++) {
+            builder.append(' ');
+        }
+        return builder.append(value).toString();
+    }
+
+    /**
+     * Returns separator with the dashes in each column.
+     *
+     * @param lengthOfColumns the length of each column
+     * @return a string which is used to separator for the table header
+     */
+    static String createSeparator(int... lengthOfColumns) {
+        StringBuilder builder = new StringBuilder("|-");
+        for (int i=0, j=lengthOfColumns.length; i<j; i++) {
+            int lengthOfColumn = lengthOfColumns[i];
+            for (int k=0; k<lengthOfColumn; k++) {
+                builder.append('-');
+            }
+            if (i < j-1) {
+                builder.append("-|-");
+            }
+        }
+        return builder.append("-|").toString();
+    }
+
+    /**
+     * Returns empty row with the whitespaces in each column.
+     *
+     * @param lengthOfColumns the length of each column
+     * @return a string which is used to create an empty row
+     */
+    static String createEmptyRow(int... lengthOfColumns) {
+        return createSeparator(lengthOfColumns).replace('-', ' ');
+    }
+
+}
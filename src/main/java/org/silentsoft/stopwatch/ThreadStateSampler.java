@@ -0,0 +1,119 @@
+package org.silentsoft.stopwatch;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * This class is used to sample the state of the threads running the open {@link ThreadStateWatchItem}s of a {@link Stopwatch}.</p>
+ * The {@link java.lang.management.ThreadMXBean} cannot tell the CPU, blocked and waited time of a virtual thread, but {@link Thread#getState()} can tell what it is doing right now.
+ * The sampler keeps track of the thread state tasks which are added to the stopwatch after it is created, together with the thread which added them,
+ * and the tasks estimate the values the JVM cannot provide from the share of samples in each state.
+ * The example below shows how to split the tasks running on virtual threads.
+ * <pre>
+ *   ThreadStateStopwatch stopwatch = new ThreadStateStopwatch();
+ *   try (ThreadStateSampler sampler = new ThreadStateSampler(stopwatch)) {
+ *       sampler.start(1);
+ *       // ...
+ *   }
+ *   stopwatch.print();
+ * </pre>
+ * Note that the estimates are only as precise as the sampling period is short compared to the tasks.
+ *
+ * @see #start(long)
+ * @see #sample()
+ */
+public class ThreadStateSampler implements Closeable {
+
+    private final Stopwatch stopwatch;
+
+    private final Map<ThreadStateWatchItem, Thread> sampledWatchItems = new ConcurrentHashMap<>();
+
+    private final Consumer<WatchItem> observer = this::watch;
+
+    private ScheduledExecutorService scheduledExecutorService;
+
+    /**
+     * Creates a new {@link ThreadStateSampler} for the given {@code stopwatch}.
+     *
+     * @param stopwatch the stopwatch whose tasks to sample
+     * @throws NullPointerException if the stopwatch is {@code null}
+     */
+    public ThreadStateSampler(Stopwatch stopwatch) throws NullPointerException {
+        if (stopwatch == null) {
+            throw new NullPointerException("Stopwatch cannot be null.");
+        }
+
+        this.stopwatch = stopwatch;
+
+        stopwatch.addObserver(observer);
+    }
+
+    private void watch(WatchItem watchItem) {
+        if (watchItem instanceof ThreadStateWatchItem && watchItem.getEndEpochMilli() == null) {
+            sampledWatchItems.put((ThreadStateWatchItem) watchItem, Thread.currentThread());
+        }
+    }
+
+    /**
+     * Starts sampling periodically on a background daemon thread.
+     *
+     * @param periodMilliseconds the period between samples in milliseconds
+     * @throws IllegalArgumentException if the period is not positive
+     * @throws IllegalStateException if this sampler is already started
+     * @see #sample()
+     * @see #close()
+     */
+    public synchronized void start(long periodMilliseconds) throws IllegalArgumentException, IllegalStateException {
+        if (periodMilliseconds <= 0) {
+            throw new IllegalArgumentException("Period must be positive.");
+        }
+        if (scheduledExecutorService != null) {
+            throw new IllegalStateException("Sampler is already started.");
+        }
+
+        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stopwatch-thread-state-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduledExecutorService.scheduleAtFixedRate(this::sample, periodMilliseconds, periodMilliseconds, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Samples the state of the thread of each open task once, and forgets the tasks which have finished.
+     */
+    public void sample() {
+        Iterator<Map.Entry<ThreadStateWatchItem, Thread>> iterator = sampledWatchItems.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<ThreadStateWatchItem, Thread> entry = iterator.next();
+            ThreadStateWatchItem watchItem = entry.getKey();
+            if (watchItem.getEndEpochMilli() != null) {
+                iterator.remove();
+                continue;
+            }
+
+            watchItem.sample(entry.getValue().getState());
+        }
+    }
+
+    /**
+     * Stops sampling periodically, and stops watching the tasks added to the stopwatch.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduledExecutorService != null) {
+            scheduledExecutorService.shutdownNow();
+            scheduledExecutorService = null;
+        }
+
+        stopwatch.removeObserver(observer);
+        sampledWatchItems.clear();
+    }
+
+}
@@ -0,0 +1,96 @@
+package org.silentsoft.stopwatch;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * This class is used to measure the time of execution as {@link Stopwatch} does while splitting the elapsed time of each task into CPU, blocked and waited time.</p>
+ * It tells whether a slow task needs more cores or fewer blocking calls, and the output is as follows:
+ * <pre>
+ *   |  name |    % |      ms |      s |  cpu | blocked |  waited |
+ *   |-------|------|---------|--------|------|---------|---------|
+ *   | query | 100% | 1,234ms | 1.234s | 34ms |     0ms | 1,198ms |
+ *   |       |      |         |        |      |         |         |
+ *   | total | 100% | 1,234ms | 1.234s | 34ms |     0ms | 1,198ms |
+ * </pre>
+ * Note that the tasks must be started and stopped on the same thread to be split correctly.
+ * The blocked and waited columns need {@link ThreadStateWatchItem#enableThreadContentionMonitoring()}, and the tasks on virtual threads need a {@link ThreadStateSampler} to be split at all.
+ *
+ * @see ThreadStateWatchItem
+ * @see ThreadStateSampler
+ */
+public class ThreadStateStopwatch extends Stopwatch {
+
+    private final ThreadMXBean threadMXBean;
+
+    /**
+     * Creates a new {@link ThreadStateStopwatch} reading the threads from the {@link ThreadMXBean} of the JVM.
+     */
+    public ThreadStateStopwatch() {
+        this(ManagementFactory.getThreadMXBean());
+    }
+
+    /**
+     * Creates a new {@link ThreadStateStopwatch} reading the threads from the given {@code threadMXBean}.
+     *
+     * @param threadMXBean the bean to read the CPU, blocked and waited time of the threads from
+     */
+    ThreadStateStopwatch(ThreadMXBean threadMXBean) {
+        this.threadMXBean = threadMXBean;
+    }
+
+    @Override
+    protected WatchItem createWatchItem(String name) {
+        return new ThreadStateWatchItem(name, threadMXBean);
+    }
+
+    @Override
+    protected Stopwatch createSnapshot() {
+        return new ThreadStateStopwatch(threadMXBean);
+    }
+
+    /**
+     * Returns the CPU, blocked and waited time columns.</p>
+     * Note that the columns are left {@code N/A} for the tasks which were not created by this stopwatch.
+     *
+     * @return the names of the additional columns
+     */
+    @Override
+    protected String[] getAdditionalColumns() {
+        return new String[] { "cpu", "blocked", "waited" };
+    }
+
+    @Override
+    protected String[] getAdditionalValues(WatchItem watchItem) {
+        if (watchItem instanceof ThreadStateWatchItem == false) {
+            return new String[] { NOT_AVAILABLE, NOT_AVAILABLE, NOT_AVAILABLE };
+        }
+
+        ThreadStateWatchItem threadStateWatchItem = (ThreadStateWatchItem) watchItem;
+        return new String[] { format(threadStateWatchItem.getCpuMilli()), format(threadStateWatchItem.getBlockedMilli()), format(threadStateWatchItem.getWaitedMilli()) };
+    }
+
+    @Override
+    protected String[] getAdditionalTotals(List<WatchItem> watchItems) {
+        long totalCpuMilliseconds = 0, totalBlockedMilliseconds = 0, totalWaitedMilliseconds = 0;
+        for (WatchItem watchItem : watchItems) {
+            if (watchItem instanceof ThreadStateWatchItem) {
+                ThreadStateWatchItem threadStateWatchItem = (ThreadStateWatchItem) watchItem;
+                totalCpuMilliseconds += valueOf(threadStateWatchItem.getCpuMilli());
+                totalBlockedMilliseconds += valueOf(threadStateWatchItem.getBlockedMilli());
+                totalWaitedMilliseconds += valueOf(threadStateWatchItem.getWaitedMilli());
+            }
+        }
+        return new String[] { NumberFormatter.milliseconds(totalCpuMilliseconds), NumberFormatter.milliseconds(totalBlockedMilliseconds), NumberFormatter.milliseconds(totalWaitedMilliseconds) };
+    }
+
+    private String format(Long milliseconds) {
+        return milliseconds == null ? NOT_AVAILABLE : NumberFormatter.milliseconds(milliseconds);
+    }
+
+    private long valueOf(Long milliseconds) {
+        return milliseconds == null ? 0 : milliseconds;
+    }
+
+}
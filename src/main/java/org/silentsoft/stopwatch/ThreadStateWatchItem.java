@@ -0,0 +1,223 @@
+package org.silentsoft.stopwatch;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * This class is used to split the elapsed time of a task into the time spent running on a CPU, blocked on a monitor and waiting.</p>
+ * The split is taken from the {@link ThreadMXBean} of the thread which created this item, so only the time between pause and resume of that thread is excluded as in {@link WatchItem}.
+ * Note that the blocked and waited times require thread contention monitoring, which is a JVM-wide setting left to the caller by {@link #enableThreadContentionMonitoring()}.
+ * If the JVM cannot provide a value (e.g. for a virtual thread), the corresponding getter estimates it from the thread states sampled by a {@link ThreadStateSampler},
+ * and returns {@code null} only if the task was never sampled.
+ *
+ * @see ThreadStateStopwatch
+ */
+public class ThreadStateWatchItem extends WatchItem {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Enables thread contention monitoring of the JVM so that the blocked and waited times can be taken from the {@link ThreadMXBean}.</p>
+     * Note that this affects every thread of the JVM and adds some cost to each contended monitor, so it is never enabled implicitly.
+     *
+     * @return {@code true} if thread contention monitoring is enabled, {@code false} if the JVM does not support or allow it
+     */
+    public static boolean enableThreadContentionMonitoring() {
+        try {
+            if (THREAD_MX_BEAN.isThreadContentionMonitoringSupported() && THREAD_MX_BEAN.isThreadContentionMonitoringEnabled() == false) {
+                THREAD_MX_BEAN.setThreadContentionMonitoringEnabled(true);
+            }
+            return THREAD_MX_BEAN.isThreadContentionMonitoringEnabled();
+        } catch (SecurityException | UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    private final ThreadMXBean threadMXBean;
+
+    private final long threadId;
+
+    private long cpuNanoAtResume, blockedMilliAtResume, waitedMilliAtResume;
+
+    private long cpuNano, blockedMilli, waitedMilli;
+
+    private final boolean cpuAvailable, blockedAvailable, waitedAvailable;
+
+    private int runnableSamples, blockedSamples, waitedSamples, numberOfSamples;
+
+    /**
+     * Creates a new {@link ThreadStateWatchItem} with the given {@code name} for the current thread.</p>
+     * Note that the start time of the task will be set to the current time.
+     *
+     * @param name the name of the task
+     */
+    public ThreadStateWatchItem(String name) {
+        this(name, THREAD_MX_BEAN);
+    }
+
+    /**
+     * Creates a new {@link ThreadStateWatchItem} with the given {@code name} for the current thread, reading the thread from the given {@code threadMXBean}.</p>
+     * Each value is only taken from the {@link ThreadMXBean} if it can be read at the start of the task, otherwise it is estimated from the samples.
+     *
+     * @param name the name of the task
+     * @param threadMXBean the bean to read the CPU, blocked and waited time of the thread from
+     */
+    ThreadStateWatchItem(String name, ThreadMXBean threadMXBean) {
+        super(name);
+
+        this.threadMXBean = threadMXBean;
+        this.threadId = Thread.currentThread().getId();
+
+        snapshot();
+        this.cpuAvailable = cpuNanoAtResume >= 0;
+        this.blockedAvailable = blockedMilliAtResume >= 0;
+        this.waitedAvailable = waitedMilliAtResume >= 0;
+    }
+
+    /**
+     * Returns the time this task spent running on a CPU in milliseconds excluding any paused time.</p>
+     * If the CPU time of the thread is not available, the share of the elapsed time in which the thread was sampled as {@link Thread.State#RUNNABLE} is returned instead.
+     *
+     * @return the CPU time in milliseconds, or {@code null} if the task is not stopped or the value is neither available nor sampled
+     */
+    public Long getCpuMilli() {
+        if (getEndEpochMilli() == null) {
+            return null;
+        }
+        return cpuAvailable ? Long.valueOf(cpuNano / 1_000_000) : estimate(runnableSamples);
+    }
+
+    /**
+     * Returns the time this task spent blocked on entering a monitor in milliseconds excluding any paused time.</p>
+     * If the blocked time of the thread is not available, the share of the elapsed time in which the thread was sampled as {@link Thread.State#BLOCKED} is returned instead.
+     *
+     * @return the blocked time in milliseconds, or {@code null} if the task is not stopped or the value is neither available nor sampled
+     */
+    public Long getBlockedMilli() {
+        if (getEndEpochMilli() == null) {
+            return null;
+        }
+        return blockedAvailable ? Long.valueOf(blockedMilli) : estimate(blockedSamples);
+    }
+
+    /**
+     * Returns the time this task spent waiting or parked in milliseconds excluding any paused time.</p>
+     * If the waited time of the thread is not available, the share of the elapsed time in which the thread was sampled as {@link Thread.State#WAITING} or {@link Thread.State#TIMED_WAITING} is returned instead.
+     *
+     * @return the waited time in milliseconds, or {@code null} if the task is not stopped or the value is neither available nor sampled
+     */
+    public Long getWaitedMilli() {
+        if (getEndEpochMilli() == null) {
+            return null;
+        }
+        return waitedAvailable ? Long.valueOf(waitedMilli) : estimate(waitedSamples);
+    }
+
+    /**
+     * Records the given {@code state} of the thread running this task, unless the task is paused or stopped.
+     *
+     * @param state the sampled state of the thread
+     * @see ThreadStateSampler
+     */
+    synchronized void sample(Thread.State state) {
+        if (getPauseEpochMilli() != null || getEndEpochMilli() != null) {
+            return;
+        }
+
+        switch (state) {
+            case RUNNABLE:
+                runnableSamples++;
+                break;
+            case BLOCKED:
+                blockedSamples++;
+                break;
+            case WAITING:
+            case TIMED_WAITING:
+                waitedSamples++;
+                break;
+            default:
+                break;
+        }
+        numberOfSamples++;
+    }
+
+    private synchronized Long estimate(int samples) {
+        Long elapsedMilli = getElapsedMilli();
+        if (numberOfSamples == 0 || elapsedMilli == null) {
+            return null;
+        }
+        return elapsedMilli * samples / numberOfSamples;
+    }
+
+    @Override
+    public synchronized boolean pause() {
+        if (getPauseEpochMilli() == null && getEndEpochMilli() == null) {
+            accumulate();
+        }
+
+        return super.pause();
+    }
+
+    @Override
+    public synchronized boolean resume() {
+        if (super.resume()) {
+            snapshot();
+
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public synchronized boolean stop() {
+        if (getEndEpochMilli() == null && getPauseEpochMilli() == null) {
+            accumulate();
+        }
+
+        return super.stop();
+    }
+
+    private void snapshot() {
+        cpuNanoAtResume = readCpuNano();
+        ThreadInfo threadInfo = readThreadInfo();
+        blockedMilliAtResume = threadInfo == null ? -1 : threadInfo.getBlockedTime();
+        waitedMilliAtResume = threadInfo == null ? -1 : threadInfo.getWaitedTime();
+    }
+
+    private void accumulate() {
+        long cpuNanoNow = readCpuNano();
+        ThreadInfo threadInfo = readThreadInfo();
+        long blockedMilliNow = threadInfo == null ? -1 : threadInfo.getBlockedTime();
+        long waitedMilliNow = threadInfo == null ? -1 : threadInfo.getWaitedTime();
+
+        // an interval which cannot be read at both ends is left out
+        if (cpuNanoAtResume >= 0 && cpuNanoNow >= 0) {
+            cpuNano += cpuNanoNow - cpuNanoAtResume;
+        }
+        if (blockedMilliAtResume >= 0 && blockedMilliNow >= 0) {
+            blockedMilli += blockedMilliNow - blockedMilliAtResume;
+        }
+        if (waitedMilliAtResume >= 0 && waitedMilliNow >= 0) {
+            waitedMilli += waitedMilliNow - waitedMilliAtResume;
+        }
+    }
+
+    private long readCpuNano() {
+        try {
+            return threadMXBean.isThreadCpuTimeSupported() ? threadMXBean.getThreadCpuTime(threadId) : -1;
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    private ThreadInfo readThreadInfo() {
+        try {
+            return threadMXBean.getThreadInfo(threadId, 0);
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+}
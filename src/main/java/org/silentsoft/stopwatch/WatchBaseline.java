@@ -0,0 +1,375 @@
+package org.silentsoft.stopwatch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is used to compare the per-name statistics of a run against a baseline saved from an earlier run of the same job.</p>
+ * The mean elapsed time of each name is compared, and the difference is tested with Welch's t-test at the 95% level when both sides aggregated at least two tasks.
+ * A name is flagged as regressed if its mean grew by more than the regression threshold, unless the test shows that the difference is not significant.
+ * The example below shows how to fail a JUnit test on a performance regression.
+ * <pre>
+ *   // once, to record the baseline
+ *   WatchBaseline.save(stopwatch.getStatistics().values(), Paths.get("nightly.stopwatch"));
+ *
+ *   // in the test
+ *   WatchBaseline baseline = WatchBaseline.load(Paths.get("nightly.stopwatch"));
+ *   baseline.setRegressionThreshold(10.0);
+ *   baseline.assertNoRegression(stopwatch.getStatistics().values());
+ * </pre>
+ * The comparison is printed as follows:
+ * <pre>
+ *   |   name | baseline | current |  delta | significant |    status |
+ *   |--------|----------|---------|--------|-------------|-----------|
+ *   |  parse |     12ms |  15.5ms | +29.2% |         yes | regressed |
+ *   | render |     40ms |    39ms |  -2.5% |          no |           |
+ *   |  fetch |          |     3ms |        |             |       new |
+ * </pre>
+ *
+ * @see WatchStatisticsFile
+ */
+public class WatchBaseline {
+
+    private static final double[] T_DISTRIBUTION_95 = {
+        12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+        2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+        2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+
+    private final Map<String, WatchStatistics> baseline;
+
+    private double regressionThreshold = 10.0;
+
+    /**
+     * Creates a new {@link WatchBaseline} from the given {@code statistics}.
+     *
+     * @param statistics the statistics of the baseline run
+     * @throws NullPointerException if the statistics is null
+     */
+    public WatchBaseline(Collection<WatchStatistics> statistics) throws NullPointerException {
+        if (statistics == null) {
+            throw new NullPointerException("Statistics cannot be null.");
+        }
+
+        this.baseline = new LinkedHashMap<>();
+        for (WatchStatistics watchStatistics : statistics) {
+            this.baseline.merge(watchStatistics.getName(), watchStatistics.copy(), (left, right) -> {
+                left.merge(right);
+                return left;
+            });
+        }
+    }
+
+    /**
+     * Saves the given {@code statistics} as a baseline to the file at the given {@code path}, replacing the file if it exists.
+     *
+     * @param statistics the statistics to save
+     * @param path the path of the file
+     * @throws IOException if the file cannot be written
+     * @see WatchStatisticsFile#write(Collection, Path)
+     */
+    public static void save(Collection<WatchStatistics> statistics, Path path) throws IOException {
+        WatchStatisticsFile.write(statistics, path);
+    }
+
+    /**
+     * Loads the baseline from the file at the given {@code path}.
+     *
+     * @param path the path of the file
+     * @return a new baseline
+     * @throws IOException if the file cannot be read or is not in the expected format
+     * @see WatchStatisticsFile#read(Path)
+     */
+    public static WatchBaseline load(Path path) throws IOException {
+        return new WatchBaseline(WatchStatisticsFile.read(path).values());
+    }
+
+    /**
+     * Returns the percentage by which the mean elapsed time may grow before a name is flagged as regressed.
+     *
+     * @return the regression threshold in percentage
+     */
+    public double getRegressionThreshold() {
+        return regressionThreshold;
+    }
+
+    /**
+     * Sets the percentage by which the mean elapsed time may grow before a name is flagged as regressed. The default is {@code 10.0}.
+     *
+     * @param regressionThreshold the regression threshold in percentage
+     * @throws IllegalArgumentException if the regression threshold is negative
+     */
+    public void setRegressionThreshold(double regressionThreshold) throws IllegalArgumentException {
+        if (regressionThreshold < 0) {
+            throw new IllegalArgumentException("Regression threshold cannot be negative.");
+        }
+
+        this.regressionThreshold = regressionThreshold;
+    }
+
+    /**
+     * Compares the given {@code statistics} against this baseline.</p>
+     * The names of the baseline come first in their saved order, followed by the names which only appear in the given statistics.
+     *
+     * @param statistics the statistics of the current run
+     * @return the comparison of each name
+     * @throws NullPointerException if the statistics is null
+     */
+    public List<Comparison> compare(Collection<WatchStatistics> statistics) throws NullPointerException {
+        if (statistics == null) {
+            throw new NullPointerException("Statistics cannot be null.");
+        }
+
+        Map<String, WatchStatistics> current = new WatchBaseline(statistics).baseline;
+
+        List<Comparison> comparisons = new ArrayList<>();
+        for (WatchStatistics watchStatistics : baseline.values()) {
+            comparisons.add(new Comparison(watchStatistics.getName(), watchStatistics, current.get(watchStatistics.getName()), regressionThreshold));
+        }
+        for (WatchStatistics watchStatistics : current.values()) {
+            if (baseline.containsKey(watchStatistics.getName()) == false) {
+                comparisons.add(new Comparison(watchStatistics.getName(), null, watchStatistics, regressionThreshold));
+            }
+        }
+        return comparisons;
+    }
+
+    /**
+     * Prints the comparison of the given {@code statistics} against this baseline as a table to the given output stream.</p>
+     * Note that the output stream is flushed but not closed.
+     *
+     * @param statistics the statistics of the current run
+     * @param outputStream the output stream to print
+     * @throws NullPointerException if the statistics or the output stream is null
+     * @throws RuntimeException if the output stream cannot be written
+     */
+    public void print(Collection<WatchStatistics> statistics, OutputStream outputStream) throws NullPointerException {
+        if (outputStream == null) {
+            throw new NullPointerException("Output stream cannot be null.");
+        }
+
+        Table table = tableOf(compare(statistics));
+        if (table.isEmpty()) {
+            return;
+        }
+
+        table.print(outputStream);
+    }
+
+    /**
+     * Asserts that none of the names in the given {@code statistics} regressed against this baseline, which is handy to fail a build from a test.
+     *
+     * @param statistics the statistics of the current run
+     * @throws NullPointerException if the statistics is null
+     * @throws AssertionError if any name regressed, with the regressed names as a table in its message
+     */
+    public void assertNoRegression(Collection<WatchStatistics> statistics) throws NullPointerException, AssertionError {
+        List<Comparison> regressions = new ArrayList<>();
+        for (Comparison comparison : compare(statistics)) {
+            if (comparison.isRegressed()) {
+                regressions.add(comparison);
+            }
+        }
+        if (regressions.isEmpty()) {
+            return;
+        }
+
+        StringWriter writer = new StringWriter();
+        writer.write(String.format("%d task(s) regressed by more than %s:\n", regressions.size(), NumberFormatter.percentage(regressionThreshold)));
+        try {
+            tableOf(regressions).write(writer);
+        } catch (IOException e) {
+            // StringWriter never throws
+        }
+        throw new AssertionError(writer.toString());
+    }
+
+    private static Table tableOf(List<Comparison> comparisons) {
+        Table table = new Table("name", "baseline", "current", "delta", "significant", "status");
+        for (Comparison comparison : comparisons) {
+            WatchStatistics baseline = comparison.getBaseline();
+            WatchStatistics current = comparison.getCurrent();
+
+            String delta = "", significant = "", status;
+            if (baseline == null) {
+                status = "new";
+            } else if (current == null) {
+                status = "missing";
+            } else {
+                double deltaPercentage = comparison.getDeltaPercentage();
+                delta = (deltaPercentage > 0 ? "+" : "").concat(NumberFormatter.percentage(deltaPercentage));
+                if (comparison.isSignificanceAvailable()) {
+                    significant = comparison.isSignificant() ? "yes" : "no";
+                }
+                status = comparison.isRegressed() ? "regressed" : (deltaPercentage < 0 && comparison.isSignificant() ? "improved" : "");
+            }
+
+            table.addRow(comparison.getName(), baseline == null ? "" : NumberFormatter.milliseconds(baseline.getAverageElapsedMilli()), current == null ? "" : NumberFormatter.milliseconds(current.getAverageElapsedMilli()), delta, significant, status);
+        }
+        return table;
+    }
+
+    /**
+     * This class is used to hold the comparison of a single name between the baseline and the current run.
+     */
+    public static class Comparison {
+
+        private final String name;
+
+        private final WatchStatistics baseline;
+
+        private final WatchStatistics current;
+
+        private final double deltaPercentage;
+
+        private final double tStatistic;
+
+        private final boolean significanceAvailable;
+
+        private final boolean significant;
+
+        private final boolean regressed;
+
+        Comparison(String name, WatchStatistics baseline, WatchStatistics current, double regressionThreshold) {
+            this.name = name;
+            this.baseline = baseline;
+            this.current = current;
+
+            if (baseline == null || current == null || baseline.getCount() == 0 || current.getCount() == 0) {
+                this.deltaPercentage = 0;
+                this.tStatistic = 0;
+                this.significanceAvailable = false;
+                this.significant = false;
+                this.regressed = false;
+                return;
+            }
+
+            double baselineAverage = baseline.getAverageElapsedMilli();
+            double currentAverage = current.getAverageElapsedMilli();
+            double difference = currentAverage - baselineAverage;
+            if (baselineAverage == 0) {
+                this.deltaPercentage = difference == 0 ? 0 : Double.POSITIVE_INFINITY;
+            } else {
+                this.deltaPercentage = (difference / baselineAverage) * 100;
+            }
+
+            this.significanceAvailable = baseline.getCount() >= 2 && current.getCount() >= 2;
+            if (significanceAvailable) {
+                double baselineError = sampleVariance(baseline) / baseline.getCount();
+                double currentError = sampleVariance(current) / current.getCount();
+                double standardError = Math.sqrt(baselineError + currentError);
+                if (standardError == 0) {
+                    this.tStatistic = difference == 0 ? 0 : Math.copySign(Double.POSITIVE_INFINITY, difference);
+                    this.significant = difference != 0;
+                } else {
+                    double degreesOfFreedom = ((baselineError + currentError) * (baselineError + currentError)) / ((baselineError * baselineError) / (baseline.getCount() - 1) + (currentError * currentError) / (current.getCount() - 1));
+                    this.tStatistic = difference / standardError;
+                    this.significant = Math.abs(tStatistic) > criticalValue(degreesOfFreedom);
+                }
+            } else {
+                this.tStatistic = 0;
+                this.significant = false;
+            }
+
+            this.regressed = deltaPercentage > regressionThreshold && (significanceAvailable == false || significant);
+        }
+
+        /**
+         * Returns the name of the task.
+         *
+         * @return the task name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the statistics of the baseline run.
+         *
+         * @return the baseline statistics, or {@code null} if the name is new in the current run
+         */
+        public WatchStatistics getBaseline() {
+            return baseline;
+        }
+
+        /**
+         * Returns the statistics of the current run.
+         *
+         * @return the current statistics, or {@code null} if the name is missing in the current run
+         */
+        public WatchStatistics getCurrent() {
+            return current;
+        }
+
+        /**
+         * Returns the change of the mean elapsed time relative to the baseline.
+         *
+         * @return the delta in percentage, which is positive if the current run is slower, or {@code 0} if either side is missing
+         */
+        public double getDeltaPercentage() {
+            return deltaPercentage;
+        }
+
+        /**
+         * Returns the t-statistic of Welch's t-test between the baseline and the current run.
+         *
+         * @return the t-statistic, or {@code 0} if the significance is not available
+         * @see #isSignificanceAvailable()
+         */
+        public double getTStatistic() {
+            return tStatistic;
+        }
+
+        /**
+         * Returns whether both sides aggregated enough tasks to test the significance of the difference.
+         *
+         * @return {@code true} if both sides aggregated at least two tasks
+         */
+        public boolean isSignificanceAvailable() {
+            return significanceAvailable;
+        }
+
+        /**
+         * Returns whether the difference of the mean elapsed time is significant at the 95% level.
+         *
+         * @return {@code true} if the difference is significant
+         */
+        public boolean isSignificant() {
+            return significant;
+        }
+
+        /**
+         * Returns whether the mean elapsed time grew by more than the regression threshold, and the growth is significant if the significance is available.
+         *
+         * @return {@code true} if the task regressed
+         */
+        public boolean isRegressed() {
+            return regressed;
+        }
+
+        private static double sampleVariance(WatchStatistics statistics) {
+            double standardDeviation = statistics.getStandardDeviationMilli();
+            return standardDeviation * standardDeviation * statistics.getCount() / (statistics.getCount() - 1);
+        }
+
+        private static double criticalValue(double degreesOfFreedom) {
+            int index = (int) Math.floor(degreesOfFreedom);
+            if (index < 1) {
+                return T_DISTRIBUTION_95[0];
+            }
+            if (index <= T_DISTRIBUTION_95.length) {
+                return T_DISTRIBUTION_95[index - 1];
+            }
+            return 1.960 + 2.4 / degreesOfFreedom;
+        }
+
+    }
+
+}
@@ -1,5 +1,7 @@
 package org.silentsoft.stopwatch;
 
+import java.util.Arrays;
+
 /**
  * This class is used to measure and store information about elapsed time.
  */
@@ -15,6 +17,14 @@ public class WatchItem {
 
     private long totalPausedMilli;
 
+    private int nameId = -1;
+
+    private long[] lapElapsedMillis;
+
+    private String[] lapLabels;
+
+    private int lapCount;
+
     /**
      * Creates a new {@link WatchItem} with the given {@code name}.</p>
      * Note that the start time of the task will be set to the current time.
@@ -85,6 +95,25 @@ public class WatchItem {
      */
     public void setName(String name) {
         this.name = name;
+        this.nameId = -1;
+    }
+
+    /**
+     * Returns the interned integer id of the name of this task assigned by the {@link WatchTimer} which started it.
+     *
+     * @return the id of the name, or {@code -1} if no id is assigned
+     */
+    int getNameId() {
+        return nameId;
+    }
+
+    /**
+     * Sets the interned integer id of the name of this task.
+     *
+     * @param nameId the id of the name
+     */
+    void setNameId(int nameId) {
+        this.nameId = nameId;
     }
 
     /**
@@ -190,12 +219,39 @@ public class WatchItem {
         return getEndEpochMilli() - getStartEpochMilli() - getTotalPausedMilli();
     }
 
+    /**
+     * Returns the elapsed time of this task as {@link #getElapsedMilli()} does, but reads the state of this task under its lock.</p>
+     * This lets another thread see a stop made by {@link #stop()} entirely, together with the paused time accumulated before it.
+     *
+     * @return the elapsed time in milliseconds, or {@code null} if this task is not stopped
+     * @see LiveStatsPublisher
+     */
+    synchronized Long readElapsedMilli() {
+        return getElapsedMilli();
+    }
+
+    /**
+     * Returns the time this task has been running until the given {@code currentEpochMilli} in milliseconds excluding any paused time.</p>
+     * The state of this task is read under its lock, so a concurrent pause, resume or stop is seen either entirely or not at all.
+     *
+     * @param currentEpochMilli the current time in milliseconds
+     * @return the running time in milliseconds, or {@code null} if this task is stopped
+     * @see StopwatchWatchdog
+     */
+    synchronized Long getRunningMilli(long currentEpochMilli) {
+        if (getEndEpochMilli() != null) {
+            return null;
+        }
+
+        return (getPauseEpochMilli() == null ? currentEpochMilli : getPauseEpochMilli()) - getStartEpochMilli() - getTotalPausedMilli();
+    }
+
     /**
      * Pauses this task if it is not paused.
      *
      * @return {@code true} if this task is currently paused. Otherwise, returns {@code false}.
      */
-    public boolean pause() {
+    public synchronized boolean pause() {
         if (getPauseEpochMilli() == null) {
             setPauseEpochMilli(System.currentTimeMillis());
 
@@ -210,7 +266,7 @@ public class WatchItem {
      *
      * @return {@code true} if this task is currently resumed. Otherwise, returns {@code false}.
      */
-    public boolean resume() {
+    public synchronized boolean resume() {
         if (getPauseEpochMilli() != null) {
             setResumeEpochMilli(System.currentTimeMillis());
 
@@ -230,7 +286,7 @@ public class WatchItem {
      *
      * @return {@code true} if this task is currently stopped. Otherwise, returns {@code false}.
      */
-    public boolean stop() {
+    public synchronized boolean stop() {
         if (getEndEpochMilli() == null) {
             resume();
 
@@ -242,4 +298,81 @@ public class WatchItem {
         return false;
     }
 
+    /**
+     * Marks a lap of this task with the given {@code label} at the current time.</p>
+     * The elapsed time excluding any paused time is appended to a primitive array, so a multi-stage task costs a single {@link WatchItem} instead of one per stage.
+     * Note that the label is interned since the same labels are usually repeated across tasks.
+     *
+     * @param label the label of the lap
+     * @return {@code true} if the lap is marked. Otherwise, returns {@code false} if this task is already stopped.
+     * @throws NullPointerException if the label is {@code null}
+     * @see #getLapCount()
+     * @see #getLapMilli(int)
+     */
+    public synchronized boolean lap(String label) throws NullPointerException {
+        if (label == null) {
+            throw new NullPointerException("Label cannot be null.");
+        }
+        if (getEndEpochMilli() != null) {
+            return false;
+        }
+
+        long currentEpochMilli = System.currentTimeMillis();
+        long pausedMilli = getTotalPausedMilli() + (getPauseEpochMilli() == null ? 0 : currentEpochMilli - getPauseEpochMilli());
+
+        if (lapElapsedMillis == null) {
+            lapElapsedMillis = new long[4];
+            lapLabels = new String[4];
+        } else if (lapCount == lapElapsedMillis.length) {
+            lapElapsedMillis = Arrays.copyOf(lapElapsedMillis, lapCount * 2);
+            lapLabels = Arrays.copyOf(lapLabels, lapCount * 2);
+        }
+        lapElapsedMillis[lapCount] = currentEpochMilli - getStartEpochMilli() - pausedMilli;
+        lapLabels[lapCount] = label.intern();
+        lapCount++;
+
+        return true;
+    }
+
+    /**
+     * Returns the number of laps marked on this task.
+     *
+     * @return the number of laps
+     */
+    public int getLapCount() {
+        return lapCount;
+    }
+
+    /**
+     * Returns the label of the lap at the given {@code index}.
+     *
+     * @param index the index of the lap
+     * @return the label of the lap
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public String getLapLabel(int index) throws IndexOutOfBoundsException {
+        checkLapIndex(index);
+
+        return lapLabels[index];
+    }
+
+    /**
+     * Returns the duration of the lap at the given {@code index} in milliseconds excluding any paused time, i.e. the time since the previous lap or the start of this task.
+     *
+     * @param index the index of the lap
+     * @return the duration of the lap in milliseconds
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public long getLapMilli(int index) throws IndexOutOfBoundsException {
+        checkLapIndex(index);
+
+        return lapElapsedMillis[index] - (index == 0 ? 0 : lapElapsedMillis[index - 1]);
+    }
+
+    private void checkLapIndex(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= lapCount) {
+            throw new IndexOutOfBoundsException("Lap index: ".concat(String.valueOf(index)).concat(", Lap count: ").concat(String.valueOf(lapCount)));
+        }
+    }
+
 }
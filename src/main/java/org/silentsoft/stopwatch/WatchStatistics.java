@@ -0,0 +1,265 @@
+package org.silentsoft.stopwatch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * This class is used to aggregate the elapsed time of finished tasks sharing the same name.</p>
+ * Besides the count, sum, minimum and maximum, it keeps the sum of squares and a histogram with power-of-two buckets, so that the statistics of many processes can be merged without losing the shape of the distribution.
+ *
+ * @see Stopwatch#getStatistics()
+ */
+public class WatchStatistics {
+
+    /**
+     * The number of histogram buckets. The bucket {@code i} counts the elapsed times in {@code [2^(i-1), 2^i)} milliseconds, and the bucket {@code 0} counts {@code 0} milliseconds.
+     */
+    public static final int BUCKETS = 64;
+
+    private final String name;
+
+    private long count;
+
+    private long totalElapsedMilli;
+
+    private long minElapsedMilli;
+
+    private long maxElapsedMilli;
+
+    private double sumOfSquares;
+
+    private final long[] histogram = new long[BUCKETS];
+
+    /**
+     * Creates a new empty {@link WatchStatistics} with the given {@code name}.
+     *
+     * @param name the name of the tasks
+     * @throws NullPointerException if the name is {@code null}
+     */
+    public WatchStatistics(String name) throws NullPointerException {
+        if (name == null) {
+            throw new NullPointerException("Name cannot be null.");
+        }
+
+        this.name = name;
+        this.minElapsedMilli = Long.MAX_VALUE;
+        this.maxElapsedMilli = Long.MIN_VALUE;
+    }
+
+    /**
+     * Returns the name of the aggregated tasks.
+     *
+     * @return the task name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of aggregated tasks.
+     *
+     * @return the number of tasks
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the sum of the elapsed time of all aggregated tasks in milliseconds.
+     *
+     * @return the total elapsed time in milliseconds
+     */
+    public long getTotalElapsedMilli() {
+        return totalElapsedMilli;
+    }
+
+    /**
+     * Returns the shortest elapsed time of the aggregated tasks in milliseconds.
+     *
+     * @return the minimum elapsed time in milliseconds, or {@code 0} if nothing has been aggregated
+     */
+    public long getMinElapsedMilli() {
+        return count == 0 ? 0 : minElapsedMilli;
+    }
+
+    /**
+     * Returns the longest elapsed time of the aggregated tasks in milliseconds.
+     *
+     * @return the maximum elapsed time in milliseconds, or {@code 0} if nothing has been aggregated
+     */
+    public long getMaxElapsedMilli() {
+        return count == 0 ? 0 : maxElapsedMilli;
+    }
+
+    /**
+     * Returns the average elapsed time of the aggregated tasks in milliseconds.
+     *
+     * @return the average elapsed time in milliseconds, or {@code 0} if nothing has been aggregated
+     */
+    public double getAverageElapsedMilli() {
+        return count == 0 ? 0 : totalElapsedMilli / (count * 1.0);
+    }
+
+    /**
+     * Returns the standard deviation of the elapsed time of the aggregated tasks in milliseconds.
+     *
+     * @return the population standard deviation in milliseconds, or {@code 0} if nothing has been aggregated
+     */
+    public double getStandardDeviationMilli() {
+        if (count == 0) {
+            return 0;
+        }
+
+        double average = getAverageElapsedMilli();
+        return Math.sqrt(Math.max(0, sumOfSquares / count - average * average));
+    }
+
+    /**
+     * Returns a copy of the histogram of the elapsed time.
+     *
+     * @return the number of tasks in each bucket
+     * @see #BUCKETS
+     */
+    public long[] getHistogram() {
+        return histogram.clone();
+    }
+
+    /**
+     * Returns the approximate elapsed time at the given {@code percentile} from the histogram.</p>
+     * Note that the result is the upper bound of the bucket containing the percentile, clamped to the maximum elapsed time.
+     *
+     * @param percentile the percentile between {@code 0} and {@code 100}
+     * @return the approximate elapsed time in milliseconds, or {@code 0} if nothing has been aggregated
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public long getPercentileElapsedMilli(double percentile) throws IllegalArgumentException {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long accumulated = 0;
+        for (int i=0; i<BUCKETS; i++) {
+            accumulated += histogram[i];
+            if (accumulated >= rank) {
+                long upperBound = i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+                return Math.max(getMinElapsedMilli(), Math.min(upperBound, getMaxElapsedMilli()));
+            }
+        }
+        return getMaxElapsedMilli();
+    }
+
+    /**
+     * Adds the given elapsed time of a single task to this statistics.
+     *
+     * @param elapsedMilli the elapsed time in milliseconds
+     */
+    public void add(long elapsedMilli) {
+        count++;
+        totalElapsedMilli += elapsedMilli;
+        minElapsedMilli = Math.min(minElapsedMilli, elapsedMilli);
+        maxElapsedMilli = Math.max(maxElapsedMilli, elapsedMilli);
+        sumOfSquares += (double) elapsedMilli * elapsedMilli;
+        histogram[bucketOf(elapsedMilli)]++;
+    }
+
+    /**
+     * Adds all tasks aggregated by the given {@code statistics} to this statistics.
+     *
+     * @param statistics the statistics to merge
+     * @throws IllegalArgumentException if the name of the given statistics is different
+     */
+    public void merge(WatchStatistics statistics) throws IllegalArgumentException {
+        if (name.equals(statistics.getName()) == false) {
+            throw new IllegalArgumentException("Cannot merge statistics of different names.");
+        }
+
+        count += statistics.count;
+        totalElapsedMilli += statistics.totalElapsedMilli;
+        minElapsedMilli = Math.min(minElapsedMilli, statistics.minElapsedMilli);
+        maxElapsedMilli = Math.max(maxElapsedMilli, statistics.maxElapsedMilli);
+        sumOfSquares += statistics.sumOfSquares;
+        for (int i=0; i<BUCKETS; i++) {
+            histogram[i] += statistics.histogram[i];
+        }
+    }
+
+    /**
+     * Returns a copy of this statistics.
+     *
+     * @return a new statistics with the same values
+     */
+    public WatchStatistics copy() {
+        WatchStatistics statistics = new WatchStatistics(name);
+        statistics.merge(this);
+        return statistics;
+    }
+
+    /**
+     * Writes this statistics to the given output in a compact binary format.
+     *
+     * @param output the output to write
+     * @throws IOException if the output cannot be written
+     * @see #readFrom(DataInput)
+     */
+    void writeTo(DataOutput output) throws IOException {
+        output.writeUTF(name);
+        output.writeLong(count);
+        output.writeLong(totalElapsedMilli);
+        output.writeLong(getMinElapsedMilli());
+        output.writeLong(getMaxElapsedMilli());
+        output.writeDouble(sumOfSquares);
+
+        int from = 0, to = BUCKETS;
+        while (from < to && histogram[from] == 0) {
+            from++;
+        }
+        while (to > from && histogram[to-1] == 0) {
+            to--;
+        }
+        output.writeByte(from);
+        output.writeByte(to - from);
+        for (int i=from; i<to; i++) {
+            output.writeLong(histogram[i]);
+        }
+    }
+
+    /**
+     * Reads a statistics written by {@link #writeTo(DataOutput)} from the given input.
+     *
+     * @param input the input to read
+     * @return the statistics read
+     * @throws IOException if the input cannot be read or is malformed
+     */
+    static WatchStatistics readFrom(DataInput input) throws IOException {
+        WatchStatistics statistics = new WatchStatistics(input.readUTF());
+        statistics.count = input.readLong();
+        statistics.totalElapsedMilli = input.readLong();
+        long minElapsedMilli = input.readLong();
+        long maxElapsedMilli = input.readLong();
+        if (statistics.count > 0) {
+            statistics.minElapsedMilli = minElapsedMilli;
+            statistics.maxElapsedMilli = maxElapsedMilli;
+        }
+        statistics.sumOfSquares = input.readDouble();
+
+        int from = input.readUnsignedByte();
+        int length = input.readUnsignedByte();
+        if (from + length > BUCKETS) {
+            throw new IOException("Malformed histogram.");
+        }
+        for (int i=from; i<from+length; i++) {
+            statistics.histogram[i] = input.readLong();
+        }
+        return statistics;
+    }
+
+    private static int bucketOf(long elapsedMilli) {
+        return elapsedMilli <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(elapsedMilli));
+    }
+
+}
@@ -0,0 +1,167 @@
+package org.silentsoft.stopwatch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class is used to save the per-name statistics in a compact binary format and to merge the saved files of many processes into one.</p>
+ * The example below shows how to combine the results of the same job run on many nodes.
+ * <pre>
+ *   // on each node
+ *   WatchStatisticsFile.write(stopwatch.getStatistics().values(), Paths.get("node-1.stopwatch"));
+ *
+ *   // anywhere
+ *   Map&lt;String, WatchStatistics&gt; statistics = WatchStatisticsFile.merge(paths);
+ *   WatchStatisticsFile.print(statistics.values(), System.out);
+ * </pre>
+ *
+ * @see WatchStatistics
+ */
+public final class WatchStatisticsFile {
+
+    private WatchStatisticsFile() { }
+
+    private static final int MAGIC = 0x53545057;
+
+    private static final int VERSION = 1;
+
+    /**
+     * Writes the given {@code statistics} to the given output stream.</p>
+     * Note that the output stream is flushed but not closed.
+     *
+     * @param statistics the statistics to write
+     * @param outputStream the output stream to write
+     * @throws IOException if the output stream cannot be written
+     */
+    public static void write(Collection<WatchStatistics> statistics, OutputStream outputStream) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        output.writeInt(statistics.size());
+        for (WatchStatistics watchStatistics : statistics) {
+            watchStatistics.writeTo(output);
+        }
+        output.flush();
+    }
+
+    /**
+     * Writes the given {@code statistics} to the file at the given {@code path}, replacing the file if it exists.
+     *
+     * @param statistics the statistics to write
+     * @param path the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Collection<WatchStatistics> statistics, Path path) throws IOException {
+        try (OutputStream outputStream = Files.newOutputStream(path)) {
+            write(statistics, outputStream);
+        }
+    }
+
+    /**
+     * Reads the statistics from the given input stream.
+     *
+     * @param inputStream the input stream to read
+     * @return a map of the task name to its statistics in the order they were written
+     * @throws IOException if the input stream cannot be read or is not in the expected format
+     */
+    public static Map<String, WatchStatistics> read(InputStream inputStream) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream));
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a stopwatch statistics file.");
+        }
+        int version = input.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported version: ".concat(String.valueOf(version)));
+        }
+
+        Map<String, WatchStatistics> statistics = new LinkedHashMap<>();
+        for (int i=0, j=input.readInt(); i<j; i++) {
+            WatchStatistics watchStatistics = WatchStatistics.readFrom(input);
+            statistics.merge(watchStatistics.getName(), watchStatistics, WatchStatisticsFile::combine);
+        }
+        return statistics;
+    }
+
+    /**
+     * Reads the statistics from the file at the given {@code path}.
+     *
+     * @param path the path of the file
+     * @return a map of the task name to its statistics in the order they were written
+     * @throws IOException if the file cannot be read or is not in the expected format
+     */
+    public static Map<String, WatchStatistics> read(Path path) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            return read(inputStream);
+        }
+    }
+
+    /**
+     * Reads the files at the given {@code paths} in parallel and merges their statistics by name.
+     *
+     * @param paths the paths of the files
+     * @return a map of the task name to its merged statistics in the order in which each name first appears
+     * @throws IOException if any file cannot be read or is not in the expected format
+     */
+    public static Map<String, WatchStatistics> merge(Collection<Path> paths) throws IOException {
+        try {
+            return paths.parallelStream().<Map<String, WatchStatistics>>map(path -> {
+                try {
+                    return read(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).reduce(new LinkedHashMap<String, WatchStatistics>(), WatchStatisticsFile::combine);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Prints the given {@code statistics} as a table to the given output stream.</p>
+     * Note that the output stream is flushed but not closed.
+     *
+     * @param statistics the statistics to print
+     * @param outputStream the output stream to print
+     * @throws NullPointerException if the output stream is null
+     * @throws RuntimeException if the output stream cannot be written
+     */
+    public static void print(Collection<WatchStatistics> statistics, OutputStream outputStream) {
+        if (outputStream == null) {
+            throw new NullPointerException("Output stream cannot be null.");
+        }
+        if (statistics.isEmpty()) {
+            return;
+        }
+
+        Table.of(statistics).print(outputStream);
+    }
+
+    private static Map<String, WatchStatistics> combine(Map<String, WatchStatistics> left, Map<String, WatchStatistics> right) {
+        Map<String, WatchStatistics> combined = new LinkedHashMap<>();
+        for (WatchStatistics watchStatistics : left.values()) {
+            combined.put(watchStatistics.getName(), watchStatistics.copy());
+        }
+        for (WatchStatistics watchStatistics : right.values()) {
+            combined.merge(watchStatistics.getName(), watchStatistics, WatchStatisticsFile::combine);
+        }
+        return combined;
+    }
+
+    private static WatchStatistics combine(WatchStatistics left, WatchStatistics right) {
+        WatchStatistics combined = left.copy();
+        combined.merge(right);
+        return combined;
+    }
+
+}
@@ -0,0 +1,117 @@
+package org.silentsoft.stopwatch;
+
+import java.util.Iterator;
+
+/**
+ * This class is used to record the tasks of a single name into a {@link Stopwatch} without resolving the name on each call.</p>
+ * The timer is bound to the interned integer id of its name, so starting skips the name check of {@link Stopwatch#add(WatchItem)}, and pausing, resuming and stopping compare integer ids.
+ * The tasks of the same name which were not started by a timer carry no id, and are matched by their name instead.
+ *
+ * @see Stopwatch#timer(String)
+ */
+public class WatchTimer {
+
+    private final Stopwatch stopwatch;
+
+    private final String name;
+
+    private final int nameId;
+
+    WatchTimer(Stopwatch stopwatch, String name, int nameId) {
+        this.stopwatch = stopwatch;
+        this.name = name;
+        this.nameId = nameId;
+    }
+
+    /**
+     * Returns the name of the tasks recorded by this timer.
+     *
+     * @return the task name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Starts a new task of this timer immediately.</p>
+     * The returned task can be stopped directly by {@link WatchItem#stop()}, which avoids any lookup at all.
+     *
+     * @return the started task
+     */
+    public WatchItem start() {
+        WatchItem watchItem = stopwatch.createWatchItem(name);
+        watchItem.setNameId(nameId);
+
+        synchronized (stopwatch.watchItems) {
+            stopwatch.watchItems.add(watchItem);
+            stopwatch.added(watchItem);
+        }
+
+        return watchItem;
+    }
+
+    /**
+     * Measures the given {@code runnable} as a task of this timer.
+     *
+     * @param runnable the runnable used to measure the elapsed time
+     */
+    public void time(Runnable runnable) {
+        WatchItem watchItem = start();
+        try {
+            runnable.run();
+        } finally {
+            watchItem.stop();
+        }
+    }
+
+    /**
+     * Pauses the last started task of this timer.
+     */
+    public void pause() {
+        synchronized (stopwatch.watchItems) {
+            Iterator<WatchItem> iterator = stopwatch.watchItems.descendingIterator();
+            while (iterator.hasNext()) {
+                WatchItem watchItem = iterator.next();
+                if (matches(watchItem) && watchItem.pause()) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Resumes the last paused task of this timer.
+     */
+    public void resume() {
+        synchronized (stopwatch.watchItems) {
+            Iterator<WatchItem> iterator = stopwatch.watchItems.descendingIterator();
+            while (iterator.hasNext()) {
+                WatchItem watchItem = iterator.next();
+                if (matches(watchItem) && watchItem.resume()) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the last started task of this timer.
+     */
+    public void stop() {
+        synchronized (stopwatch.watchItems) {
+            Iterator<WatchItem> iterator = stopwatch.watchItems.descendingIterator();
+            while (iterator.hasNext()) {
+                WatchItem watchItem = iterator.next();
+                if (matches(watchItem) && watchItem.stop()) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private boolean matches(WatchItem watchItem) {
+        int watchItemNameId = watchItem.getNameId();
+        return watchItemNameId < 0 ? name.equals(watchItem.getName()) : watchItemNameId == nameId;
+    }
+
+}
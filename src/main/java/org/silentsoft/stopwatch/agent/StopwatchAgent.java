@@ -0,0 +1,56 @@
+package org.silentsoft.stopwatch.agent;
+
+import java.lang.instrument.Instrumentation;
+import java.util.Arrays;
+
+/**
+ * This class is used to measure methods without touching their call sites by weaving the calls to {@link TimedRuntime} when the classes are loaded.</p>
+ * The agent measures the methods annotated with {@link Timed}, and the public methods of the classes in the packages given as the agent arguments separated by commas.
+ * The example below shows how to start an application with the agent.
+ * <pre>
+ *   java -javaagent:stopwatch-agent.jar=com.example.service,com.example.dao com.example.Main
+ * </pre>
+ * and the result can be printed as follows:
+ * <pre>
+ *   TimedRuntime.getStopwatch().print();
+ * </pre>
+ * Note that the agent must be loaded from the jar with the {@code agent} classifier, which has {@code org.ow2.asm:asm-commons} and the weaving classes relocated inside,
+ * so it works either alone or next to the plain jar on the class path. The plain jar does not carry the weaving classes at all, so it never needs ASM.
+ * Without the agent no method is woven at all.
+ *
+ * @see Timed
+ * @see TimedRuntime
+ */
+public final class StopwatchAgent {
+
+    private StopwatchAgent() { }
+
+    /**
+     * Installs the agent before the main method of the application is called.
+     *
+     * @param arguments the names of the packages to measure separated by commas, or {@code null} to measure the annotated methods only
+     * @param instrumentation the instrumentation provided by the JVM
+     */
+    public static void premain(String arguments, Instrumentation instrumentation) {
+        instrumentation.addTransformer(new TimedClassTransformer(parse(arguments)));
+    }
+
+    /**
+     * Installs the agent into a running JVM. Note that only the classes loaded after this call are woven.
+     *
+     * @param arguments the names of the packages to measure separated by commas, or {@code null} to measure the annotated methods only
+     * @param instrumentation the instrumentation provided by the JVM
+     */
+    public static void agentmain(String arguments, Instrumentation instrumentation) {
+        premain(arguments, instrumentation);
+    }
+
+    static String[] parse(String arguments) {
+        if (arguments == null || arguments.trim().isEmpty()) {
+            return new String[0];
+        }
+
+        return Arrays.stream(arguments.split(",")).map(String::trim).filter(packageName -> packageName.isEmpty() == false).toArray(String[]::new);
+    }
+
+}
@@ -0,0 +1,34 @@
+package org.silentsoft.stopwatch.agent;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation is used to mark the methods to be measured by the {@link StopwatchAgent}.</p>
+ * The example below shows how to measure a method as {@code db.query}.
+ * <pre>
+ *   &#64;Timed("db.query")
+ *   public List&lt;Row&gt; query(String sql) {
+ *       // ...
+ *   }
+ * </pre>
+ * Note that this annotation has no effect unless the application is started with the agent.
+ *
+ * @see StopwatchAgent
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Timed {
+
+    /**
+     * Returns the name of the task. If it is empty, the simple name of the class and the method name joined with a dot is used.
+     *
+     * @return the task name
+     */
+    String value() default "";
+
+}
@@ -0,0 +1,299 @@
+package org.silentsoft.stopwatch.agent;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.commons.AdviceAdapter;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.security.ProtectionDomain;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class is used to weave the calls to {@link TimedRuntime} around the methods to be measured.</p>
+ * A method is measured if it is annotated with {@link Timed}, or if it is a public method of a class in one of the given packages.
+ * The woven code is equivalent to the following:
+ * <pre>
+ *   private static final TimedRuntime.Handle stopwatch$handle$0 = TimedRuntime.handle("name");
+ *
+ *   WatchItem watchItem = TimedRuntime.start(stopwatch$handle$0);
+ *   try {
+ *       // original body
+ *   } finally {
+ *       TimedRuntime.stop(watchItem);
+ *   }
+ * </pre>
+ * where the handle is initialized once in the static initializer of the class, so entering the method neither reflects nor looks up the timer by its name.
+ */
+public class TimedClassTransformer implements ClassFileTransformer {
+
+    private static final String TIMED_DESCRIPTOR = Type.getDescriptor(Timed.class);
+
+    private static final String RUNTIME_INTERNAL_NAME = Type.getInternalName(TimedRuntime.class);
+
+    private static final String HANDLE_DESCRIPTOR = Type.getDescriptor(TimedRuntime.Handle.class);
+
+    private static final String HANDLE_FIELD_PREFIX = "stopwatch$handle$";
+
+    private static final String CREATE_HANDLE_DESCRIPTOR = "(Ljava/lang/String;)".concat(HANDLE_DESCRIPTOR);
+
+    private static final String START_DESCRIPTOR = "(".concat(HANDLE_DESCRIPTOR).concat(")Lorg/silentsoft/stopwatch/WatchItem;");
+
+    private static final String STOP_DESCRIPTOR = "(Lorg/silentsoft/stopwatch/WatchItem;)V";
+
+    private static final Type WATCH_ITEM_TYPE = Type.getObjectType("org/silentsoft/stopwatch/WatchItem");
+
+    private static final String[] EXCLUDED_PREFIXES = { "java/", "javax/", "jdk/", "sun/", "com/sun/", "org/objectweb/asm/", "org/silentsoft/stopwatch/" };
+
+    private final String[] packagePrefixes;
+
+    /**
+     * Creates a new {@link TimedClassTransformer} measuring the methods annotated with {@link Timed} and the public methods of the classes in the given packages.
+     *
+     * @param packageNames the names of the packages whose public methods are measured, including their sub-packages
+     */
+    public TimedClassTransformer(String... packageNames) {
+        this.packagePrefixes = new String[packageNames.length];
+        for (int i=0; i<packageNames.length; i++) {
+            this.packagePrefixes[i] = packageNames[i].replace('.', '/').concat("/");
+        }
+    }
+
+    @Override
+    public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined, ProtectionDomain protectionDomain, byte[] classfileBuffer) {
+        if (className == null || isExcluded(className)) {
+            return null;
+        }
+
+        try {
+            return transform(loader, className, classfileBuffer);
+        } catch (Throwable e) {
+            // a class which cannot be woven is loaded as it is
+            return null;
+        }
+    }
+
+    /**
+     * Returns the woven class file of the given class.
+     *
+     * @param loader the class loader which loads the class
+     * @param className the internal name of the class
+     * @param classfileBuffer the original class file
+     * @return the woven class file, or {@code null} if no method of the class is measured
+     */
+    byte[] transform(ClassLoader loader, String className, byte[] classfileBuffer) {
+        boolean inPackage = isInPackage(className);
+
+        ClassReader classReader = new ClassReader(classfileBuffer);
+        if ((classReader.getAccess() & Opcodes.ACC_INTERFACE) != 0) {
+            return null;
+        }
+
+        Map<String, String> taskNames = findTaskNames(classReader, className, inPackage);
+        if (taskNames.isEmpty()) {
+            return null;
+        }
+
+        ClassWriter classWriter = new ClassWriter(classReader, ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                try {
+                    Class<?> class1 = Class.forName(type1.replace('/', '.'), false, loader);
+                    Class<?> class2 = Class.forName(type2.replace('/', '.'), false, loader);
+                    if (class1.isAssignableFrom(class2)) {
+                        return type1;
+                    }
+                    if (class2.isAssignableFrom(class1)) {
+                        return type2;
+                    }
+                    if (class1.isInterface() || class2.isInterface()) {
+                        return "java/lang/Object";
+                    }
+                    do {
+                        class1 = class1.getSuperclass();
+                    } while (class1.isAssignableFrom(class2) == false);
+                    return Type.getInternalName(class1);
+                } catch (Throwable e) {
+                    return "java/lang/Object";
+                }
+            }
+        };
+
+        classReader.accept(new ClassVisitor(Opcodes.ASM9, classWriter) {
+            private final Map<String, String> fieldNames = new LinkedHashMap<>();
+
+            private boolean initialized;
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                MethodVisitor methodVisitor = super.visitMethod(access, name, descriptor, signature, exceptions);
+                if ("<clinit>".equals(name)) {
+                    initialized = true;
+                    return new MethodVisitor(Opcodes.ASM9, methodVisitor) {
+                        @Override
+                        public void visitCode() {
+                            super.visitCode();
+                            initializeHandles(mv);
+                        }
+                    };
+                }
+
+                if (taskNames.containsKey(name.concat(descriptor)) == false) {
+                    return methodVisitor;
+                }
+
+                return new TimedMethodVisitor(methodVisitor, access, name, descriptor, className, fieldNameOf(name.concat(descriptor)));
+            }
+
+            @Override
+            public void visitEnd() {
+                for (String key : taskNames.keySet()) {
+                    super.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC, fieldNameOf(key), HANDLE_DESCRIPTOR, null, null).visitEnd();
+                }
+
+                if (initialized == false) {
+                    MethodVisitor methodVisitor = super.visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
+                    methodVisitor.visitCode();
+                    initializeHandles(methodVisitor);
+                    methodVisitor.visitInsn(Opcodes.RETURN);
+                    methodVisitor.visitMaxs(0, 0);
+                    methodVisitor.visitEnd();
+                }
+
+                super.visitEnd();
+            }
+
+            private String fieldNameOf(String key) {
+                return fieldNames.computeIfAbsent(key, k -> HANDLE_FIELD_PREFIX.concat(String.valueOf(fieldNames.size())));
+            }
+
+            private void initializeHandles(MethodVisitor methodVisitor) {
+                for (Map.Entry<String, String> entry : taskNames.entrySet()) {
+                    methodVisitor.visitLdcInsn(entry.getValue());
+                    methodVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, RUNTIME_INTERNAL_NAME, "handle", CREATE_HANDLE_DESCRIPTOR, false);
+                    methodVisitor.visitFieldInsn(Opcodes.PUTSTATIC, className, fieldNameOf(entry.getKey()), HANDLE_DESCRIPTOR);
+                }
+            }
+        }, ClassReader.EXPAND_FRAMES);
+
+        return classWriter.toByteArray();
+    }
+
+    /**
+     * Returns the task names of the measured methods of the given class, keyed by the name and the descriptor of each method.
+     */
+    private Map<String, String> findTaskNames(ClassReader classReader, String className, boolean inPackage) {
+        Map<String, String> taskNames = new LinkedHashMap<>();
+        String simpleClassName = className.substring(className.lastIndexOf('/') + 1);
+        classReader.accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                if ((access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE | Opcodes.ACC_SYNTHETIC | Opcodes.ACC_BRIDGE)) != 0 || name.startsWith("<")) {
+                    return null;
+                }
+
+                String key = name.concat(descriptor);
+                String defaultName = simpleClassName.concat(".").concat(name);
+                if (inPackage && (access & Opcodes.ACC_PUBLIC) != 0) {
+                    taskNames.put(key, defaultName);
+                }
+
+                return new MethodVisitor(Opcodes.ASM9) {
+                    @Override
+                    public AnnotationVisitor visitAnnotation(String annotationDescriptor, boolean visible) {
+                        if (TIMED_DESCRIPTOR.equals(annotationDescriptor) == false) {
+                            return null;
+                        }
+
+                        taskNames.put(key, defaultName);
+                        return new AnnotationVisitor(Opcodes.ASM9) {
+                            @Override
+                            public void visit(String name, Object value) {
+                                if ("value".equals(name) && value instanceof String && ((String) value).isEmpty() == false) {
+                                    taskNames.put(key, (String) value);
+                                }
+                            }
+                        };
+                    }
+                };
+            }
+        }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+
+        return taskNames;
+    }
+
+    private boolean isExcluded(String className) {
+        for (String excludedPrefix : EXCLUDED_PREFIXES) {
+            if (className.startsWith(excludedPrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isInPackage(String className) {
+        for (String packagePrefix : packagePrefixes) {
+            if (className.startsWith(packagePrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class TimedMethodVisitor extends AdviceAdapter {
+
+        private final String className;
+
+        private final String fieldName;
+
+        private int watchItemLocal;
+
+        private final Label startLabel = new Label();
+
+        private final Label handlerLabel = new Label();
+
+        TimedMethodVisitor(MethodVisitor methodVisitor, int access, String name, String descriptor, String className, String fieldName) {
+            super(Opcodes.ASM9, methodVisitor, access, name, descriptor);
+
+            this.className = className;
+            this.fieldName = fieldName;
+        }
+
+        @Override
+        protected void onMethodEnter() {
+            visitFieldInsn(GETSTATIC, className, fieldName, HANDLE_DESCRIPTOR);
+            visitMethodInsn(INVOKESTATIC, RUNTIME_INTERNAL_NAME, "start", START_DESCRIPTOR, false);
+            watchItemLocal = newLocal(WATCH_ITEM_TYPE);
+            storeLocal(watchItemLocal);
+            visitLabel(startLabel);
+        }
+
+        @Override
+        protected void onMethodExit(int opcode) {
+            if (opcode != ATHROW) {
+                loadLocal(watchItemLocal);
+                visitMethodInsn(INVOKESTATIC, RUNTIME_INTERNAL_NAME, "stop", STOP_DESCRIPTOR, false);
+            }
+        }
+
+        @Override
+        public void visitMaxs(int maxStack, int maxLocals) {
+            // the handler is registered last so that the handlers of the original body take precedence
+            visitTryCatchBlock(startLabel, handlerLabel, handlerLabel, null);
+            visitLabel(handlerLabel);
+            loadLocal(watchItemLocal);
+            visitMethodInsn(INVOKESTATIC, RUNTIME_INTERNAL_NAME, "stop", STOP_DESCRIPTOR, false);
+            visitInsn(ATHROW);
+
+            super.visitMaxs(maxStack, maxLocals);
+        }
+
+    }
+
+}
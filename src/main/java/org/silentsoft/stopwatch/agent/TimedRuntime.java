@@ -0,0 +1,128 @@
+package org.silentsoft.stopwatch.agent;
+
+import org.silentsoft.stopwatch.Stopwatch;
+import org.silentsoft.stopwatch.WatchItem;
+import org.silentsoft.stopwatch.WatchTimer;
+
+/**
+ * This class is called by the methods woven by the {@link StopwatchAgent} to record their time into a {@link Stopwatch}.</p>
+ * Each woven method resolves its {@link Handle} once when its class is initialized, so entering the method only starts the timer of the handle.
+ * The woven code keeps the returned {@link WatchItem} in a local variable and stops exactly that item on return or throw, so a mismatched name can never stop another task.
+ *
+ * @see #setStopwatch(Stopwatch)
+ */
+public final class TimedRuntime {
+
+    private TimedRuntime() { }
+
+    private static volatile Stopwatch stopwatch = new Stopwatch();
+
+    /**
+     * Returns the stopwatch into which the woven methods record their time.
+     *
+     * @return the stopwatch
+     */
+    public static Stopwatch getStopwatch() {
+        return stopwatch;
+    }
+
+    /**
+     * Sets the stopwatch into which the woven methods record their time.
+     *
+     * @param stopwatch the stopwatch to record into
+     * @throws NullPointerException if the stopwatch is {@code null}
+     */
+    public static void setStopwatch(Stopwatch stopwatch) throws NullPointerException {
+        if (stopwatch == null) {
+            throw new NullPointerException("Stopwatch cannot be null.");
+        }
+
+        TimedRuntime.stopwatch = stopwatch;
+    }
+
+    /**
+     * Returns a new handle of the task with the given {@code name}. Called once per woven method when its class is initialized.
+     *
+     * @param name the name of the task
+     * @return the handle of the task
+     * @throws NullPointerException if the name is {@code null}
+     */
+    public static Handle handle(String name) throws NullPointerException {
+        if (name == null) {
+            throw new NullPointerException("Name cannot be null.");
+        }
+
+        return new Handle(name);
+    }
+
+    /**
+     * Starts a task through the timer of the given {@code handle}. Called on entering a woven method.</p>
+     * Note that the task is created by the stopwatch, so a subclass such as {@link org.silentsoft.stopwatch.ThreadStateStopwatch} records its additional information as well.
+     *
+     * @param handle the handle of the task
+     * @return the started task
+     */
+    public static WatchItem start(Handle handle) {
+        Stopwatch stopwatch = TimedRuntime.stopwatch;
+
+        Binding binding = handle.binding;
+        if (binding == null || binding.stopwatch != stopwatch) {
+            // the timer is resolved again only when the stopwatch has been replaced since the last call
+            binding = new Binding(stopwatch, stopwatch.timer(handle.name));
+            handle.binding = binding;
+        }
+
+        return binding.timer.start();
+    }
+
+    /**
+     * Stops the given {@code watchItem}. Called on leaving a woven method either normally or by throwing.
+     *
+     * @param watchItem the task to stop
+     */
+    public static void stop(WatchItem watchItem) {
+        watchItem.stop();
+    }
+
+    /**
+     * This class is used to hold the timer of a woven method in a static field of its class.
+     *
+     * @see #handle(String)
+     * @see #start(Handle)
+     */
+    public static final class Handle {
+
+        private final String name;
+
+        // a racy read sees either null or a fully constructed binding, as its fields are final
+        private Binding binding;
+
+        Handle(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Returns the name of the task.
+         *
+         * @return the name of the task
+         */
+        public String getName() {
+            return name;
+        }
+
+    }
+
+    private static final class Binding {
+
+        private final Stopwatch stopwatch;
+
+        private final WatchTimer timer;
+
+        Binding(Stopwatch stopwatch, WatchTimer timer) {
+            this.stopwatch = stopwatch;
+            this.timer = timer;
+        }
+
+    }
+
+}
@@ -0,0 +1,29 @@
+package org.silentsoft.stopwatch.jfr;
+
+import org.silentsoft.stopwatch.Stopwatch;
+import org.silentsoft.stopwatch.WatchItem;
+
+/**
+ * This class is used to measure the time of execution as {@link Stopwatch} does while emitting each stopped task as a {@link WatchItemEvent} to Java Flight Recorder.</p>
+ * The application-level phases then show up next to the GC, lock and I/O events of the same recording.
+ * The example below shows how to enable the events on the command line.
+ * <pre>
+ *   java -XX:StartFlightRecording:filename=recording.jfr,org.silentsoft.stopwatch.WatchItem#enabled=true ...
+ * </pre>
+ * Note that this class requires Java 11 or later, so it is built into {@code META-INF/versions/11} of the multi-release jar while the rest of the library stays on Java 8.
+ *
+ * @see JfrWatchItem
+ */
+public class JfrStopwatch extends Stopwatch {
+
+    @Override
+    protected WatchItem createWatchItem(String name) {
+        return new JfrWatchItem(name);
+    }
+
+    @Override
+    protected Stopwatch createSnapshot() {
+        return new JfrStopwatch();
+    }
+
+}
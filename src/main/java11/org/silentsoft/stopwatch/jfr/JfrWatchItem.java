@@ -0,0 +1,56 @@
+package org.silentsoft.stopwatch.jfr;
+
+import jdk.jfr.EventType;
+import org.silentsoft.stopwatch.WatchItem;
+
+/**
+ * This class is used to emit a {@link WatchItemEvent} when the task is stopped.</p>
+ * The event is only created if its type is enabled in a running recording when the task starts, so a disabled event costs nothing but the check.
+ *
+ * @see JfrStopwatch
+ */
+public class JfrWatchItem extends WatchItem {
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(WatchItemEvent.class);
+
+    private WatchItemEvent event;
+
+    /**
+     * Creates a new {@link JfrWatchItem} with the given {@code name}.</p>
+     * Note that the start time of the task will be set to the current time.
+     *
+     * @param name the name of the task
+     */
+    public JfrWatchItem(String name) {
+        super(name);
+
+        if (EVENT_TYPE.isEnabled()) {
+            WatchItemEvent event = new WatchItemEvent();
+            event.begin();
+            this.event = event;
+        }
+    }
+
+    @Override
+    public boolean stop() {
+        if (super.stop()) {
+            WatchItemEvent event = this.event;
+            if (event != null) {
+                this.event = null;
+
+                event.end();
+                if (event.shouldCommit()) {
+                    event.name = getName();
+                    event.elapsed = getElapsedMilli();
+                    event.paused = getTotalPausedMilli();
+                    event.commit();
+                }
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+}
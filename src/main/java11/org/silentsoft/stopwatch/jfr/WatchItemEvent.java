@@ -0,0 +1,43 @@
+package org.silentsoft.stopwatch.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * This class is used to record a stopped task of a {@link JfrStopwatch} as a Java Flight Recorder event.</p>
+ * The duration of the event spans from the start to the stop of the task, and the thread of the event is the thread which stopped the task.
+ *
+ * @see JfrWatchItem
+ */
+@Name(WatchItemEvent.NAME)
+@Label("Watch Item")
+@Category("Stopwatch")
+@Description("A task measured by a stopwatch")
+@StackTrace(false)
+public class WatchItemEvent extends Event {
+
+    /**
+     * The name of this event type, which can be used to enable it in a recording.
+     */
+    public static final String NAME = "org.silentsoft.stopwatch.WatchItem";
+
+    @Label("Name")
+    @Description("The name of the task")
+    String name;
+
+    @Label("Elapsed")
+    @Description("The elapsed time of the task excluding any paused time")
+    @Timespan(Timespan.MILLISECONDS)
+    long elapsed;
+
+    @Label("Paused")
+    @Description("The total paused time of the task")
+    @Timespan(Timespan.MILLISECONDS)
+    long paused;
+
+}
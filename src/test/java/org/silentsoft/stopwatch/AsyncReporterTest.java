@@ -0,0 +1,183 @@
+package org.silentsoft.stopwatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class AsyncReporterTest {
+
+    @Test
+    public void reportTest() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        Stopwatch stopwatch = new Stopwatch();
+        try (AsyncReporter reporter = new AsyncReporter(outputStream)) {
+            stopwatch.add(new WatchItem("test-1", 0, 1000));
+            stopwatch.start("test-2");
+            Assertions.assertTrue(reporter.report(stopwatch));
+            Assertions.assertEquals(1, stopwatch.watchItems.size());
+
+            stopwatch.stop("test-2");
+            stopwatch.watchItems.peekFirst().setEndEpochMilli(stopwatch.watchItems.peekFirst().getStartEpochMilli() + 500);
+            Assertions.assertTrue(reporter.report(stopwatch));
+            Assertions.assertTrue(stopwatch.watchItems.isEmpty());
+
+            Assertions.assertTrue(reporter.report(stopwatch));
+        }
+        Assertions.assertFalse(closed.get());
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("|   name |    % |      ms |      s |\n");
+        builder.append("|--------|------|---------|--------|\n");
+        builder.append("| test-1 | 100% | 1,000ms | 1.000s |\n");
+        builder.append("|        |      |         |        |\n");
+        builder.append("|  total | 100% | 1,000ms | 1.000s |\n");
+        builder.append("|   name |    % |    ms |      s |\n");
+        builder.append("|--------|------|-------|--------|\n");
+        builder.append("| test-2 | 100% | 500ms | 0.500s |\n");
+        builder.append("|        |      |       |        |\n");
+        builder.append("|  total | 100% | 500ms | 0.500s |\n");
+
+        Assertions.assertEquals(builder.toString(), new String(outputStream.toByteArray()));
+    }
+
+    @Test
+    public void backpressureTest() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        OutputStream outputStream = new OutputStream() {
+            @Override
+            public void write(int b) {
+
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                writing.countDown();
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+
+                }
+            }
+        };
+
+        AsyncReporter reporter = new AsyncReporter(outputStream, 1);
+        Stopwatch stopwatch = new Stopwatch();
+
+        stopwatch.add(new WatchItem("test-1", 0, 10));
+        Assertions.assertTrue(reporter.report(stopwatch));
+        Assertions.assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        stopwatch.add(new WatchItem("test-2", 0, 10));
+        Assertions.assertTrue(reporter.report(stopwatch));
+
+        stopwatch.add(new WatchItem("test-3", 0, 10));
+        Assertions.assertFalse(reporter.report(stopwatch));
+        Assertions.assertEquals(1, stopwatch.watchItems.size());
+        Assertions.assertEquals("test-3", stopwatch.watchItems.peekFirst().getName());
+
+        blocked.countDown();
+        reporter.close();
+
+        Assertions.assertFalse(reporter.report(stopwatch));
+        Assertions.assertEquals(1, stopwatch.watchItems.size());
+    }
+
+    @Test
+    public void failedReportTest() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                if (failing.get()) {
+                    throw new IllegalStateException();
+                }
+                super.write(b, off, len);
+            }
+        };
+
+        Stopwatch stopwatch = new Stopwatch() {
+            @Override
+            protected Stopwatch createSnapshot() {
+                return new Stopwatch() {
+                    @Override
+                    public void print(OutputStream outputStream) {
+                        if (watchItems.getFirst().getName().equals("broken")) {
+                            throw new IllegalStateException();
+                        }
+                        super.print(outputStream);
+                    }
+                };
+            }
+        };
+
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            try (AsyncReporter reporter = new AsyncReporter(outputStream, 1)) {
+                for (int i=0; i<10; i++) {
+                    stopwatch.add(new WatchItem("test", 0, 10));
+                    while (reporter.report(stopwatch) == false) {
+                        Thread.sleep(1);
+                    }
+                }
+                while (reporter.getNumberOfFailedReports() < 10) {
+                    Thread.sleep(1);
+                }
+
+                failing.set(false);
+                stopwatch.add(new WatchItem("broken", 0, 10));
+                Assertions.assertTrue(reporter.report(stopwatch));
+                stopwatch.add(new WatchItem("test", 0, 10));
+                while (reporter.report(stopwatch) == false) {
+                    Thread.sleep(1);
+                }
+                reporter.close();
+
+                Assertions.assertEquals(11, reporter.getNumberOfFailedReports());
+            }
+        });
+
+        Assertions.assertEquals(1, outputStream.toString().split("total").length - 1);
+    }
+
+    @Test
+    public void exceptionTest() {
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new AsyncReporter(null);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new AsyncReporter(new ByteArrayOutputStream(), 0);
+        });
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            try (AsyncReporter reporter = new AsyncReporter(new ByteArrayOutputStream())) {
+                reporter.report(null);
+            }
+        });
+        Assertions.assertThrows(IOException.class, () -> {
+            AsyncReporter reporter = new AsyncReporter(new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    throw new IOException();
+                }
+            });
+            Stopwatch stopwatch = new Stopwatch();
+            stopwatch.add(new WatchItem("test", 0, 10));
+            reporter.report(stopwatch);
+            reporter.close();
+        });
+    }
+
+}
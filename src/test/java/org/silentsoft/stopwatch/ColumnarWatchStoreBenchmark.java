@@ -0,0 +1,39 @@
+package org.silentsoft.stopwatch;
+
+/**
+ * Compares the aggregation of {@link Stopwatch} with {@link ColumnarWatchStore} on a large number of tasks.</p>
+ * This is not part of the test suite. It needs nothing but the compiled classes, so run it manually with an optional number of tasks as follows:
+ * <pre>
+ *   mvn test-compile
+ *   java -cp target/classes:target/test-classes org.silentsoft.stopwatch.ColumnarWatchStoreBenchmark 10000000
+ * </pre>
+ * On Windows, separate the class path with {@code ;} instead of {@code :}.
+ */
+public class ColumnarWatchStoreBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int warmups = 3;
+        int rounds = 10;
+
+        Stopwatch stopwatch = new Stopwatch();
+        ColumnarWatchStore store = new ColumnarWatchStore();
+        for (int i=0; i<count; i++) {
+            String name = "task-".concat(String.valueOf(i % 16));
+            stopwatch.watchItems.add(new WatchItem(name, i, i + (i % 1000)));
+            store.add(name, i, i + (i % 1000), 0);
+        }
+
+        if (stopwatch.getTotalElapsedMilliseconds() != store.getTotalElapsedMilliseconds()) {
+            throw new IllegalStateException("Results differ.");
+        }
+
+        Stopwatch result = new Stopwatch();
+        RepeatResult.print(System.out,
+                result.repeat("Stopwatch.getTotalElapsedMilliseconds", warmups, rounds, blackhole -> blackhole.consume(stopwatch.getTotalElapsedMilliseconds())),
+                result.repeat("ColumnarWatchStore.getTotalElapsedMilliseconds", warmups, rounds, blackhole -> blackhole.consume(store.getTotalElapsedMilliseconds())),
+                result.repeat("Stopwatch.getStatistics", warmups, rounds, blackhole -> blackhole.consume(stopwatch.getStatistics())),
+                result.repeat("ColumnarWatchStore.getStatistics", warmups, rounds, blackhole -> blackhole.consume(store.getStatistics())));
+    }
+
+}
@@ -0,0 +1,100 @@
+package org.silentsoft.stopwatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+
+public class ColumnarWatchStoreTest {
+
+    @Test
+    public void addTest() {
+        Stopwatch stopwatch = new Stopwatch();
+        stopwatch.add(new WatchItem("test-1", 0, 10));
+        stopwatch.add(new WatchItem("test-2", 0, 30));
+        stopwatch.start("test-3");
+
+        ColumnarWatchStore store = new ColumnarWatchStore();
+        store.addAll(stopwatch);
+        store.add("test-1", 100, 150, 20);
+
+        Assertions.assertEquals(3, store.size());
+        Assertions.assertEquals(1, stopwatch.watchItems.size());
+        Assertions.assertEquals(70, store.getTotalElapsedMilliseconds());
+        Assertions.assertEquals(10, store.getMinElapsedMilliseconds());
+        Assertions.assertEquals(30, store.getMaxElapsedMilliseconds());
+
+        Map<String, WatchStatistics> statistics = store.getStatistics();
+        Assertions.assertArrayEquals(new String[] { "test-1", "test-2" }, statistics.keySet().toArray());
+        Assertions.assertEquals(2, statistics.get("test-1").getCount());
+        Assertions.assertEquals(40, statistics.get("test-1").getTotalElapsedMilli());
+
+        store.clear();
+        Assertions.assertEquals(0, store.size());
+        Assertions.assertEquals(0, store.getTotalElapsedMilliseconds());
+        Assertions.assertEquals(0, store.getMinElapsedMilliseconds());
+        Assertions.assertEquals(0, store.getMaxElapsedMilliseconds());
+        Assertions.assertEquals(0, store.getPercentileElapsedMilliseconds(50));
+        Assertions.assertTrue(store.getStatistics().isEmpty());
+    }
+
+    @Test
+    public void largeTest() {
+        ColumnarWatchStore store = new ColumnarWatchStore();
+        Stopwatch stopwatch = new Stopwatch();
+        for (int i=1; i<=200_000; i++) {
+            store.add("test-".concat(String.valueOf(i % 3)), 0, i, 0);
+            stopwatch.watchItems.add(new WatchItem("test", 0, i));
+        }
+
+        Assertions.assertEquals(200_000, store.size());
+        Assertions.assertEquals(stopwatch.getTotalElapsedMilliseconds(), store.getTotalElapsedMilliseconds());
+        Assertions.assertEquals(1, store.getMinElapsedMilliseconds());
+        Assertions.assertEquals(200_000, store.getMaxElapsedMilliseconds());
+        Assertions.assertEquals(1, store.getPercentileElapsedMilliseconds(0));
+        Assertions.assertEquals(100_000, store.getPercentileElapsedMilliseconds(50));
+        Assertions.assertEquals(198_000, store.getPercentileElapsedMilliseconds(99));
+        Assertions.assertEquals(200_000, store.getPercentileElapsedMilliseconds(100));
+        Assertions.assertEquals(3, store.getStatistics().size());
+    }
+
+    @Test
+    public void printTest() {
+        ColumnarWatchStore store = new ColumnarWatchStore();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        store.print(outputStream);
+        Assertions.assertEquals(0, outputStream.size());
+
+        store.add("test", 0, 1000, 0);
+        store.print(outputStream);
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("|  name | count |    % |      ms |      s |\n");
+        builder.append("|-------|-------|------|---------|--------|\n");
+        builder.append("|  test |     1 | 100% | 1,000ms | 1.000s |\n");
+        builder.append("|       |       |      |         |        |\n");
+        builder.append("| total |     1 | 100% | 1,000ms | 1.000s |\n");
+
+        Assertions.assertEquals(builder.toString(), new String(outputStream.toByteArray()));
+        Assertions.assertEquals(1, store.size());
+    }
+
+    @Test
+    public void exceptionTest() {
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new ColumnarWatchStore().add(null, 0, 0, 0);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new ColumnarWatchStore().add(new WatchItem("test"));
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new ColumnarWatchStore().getPercentileElapsedMilliseconds(-1);
+        });
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new ColumnarWatchStore().print(null);
+        });
+    }
+
+}
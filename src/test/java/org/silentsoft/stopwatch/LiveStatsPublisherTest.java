@@ -0,0 +1,130 @@
+package org.silentsoft.stopwatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+public class LiveStatsPublisherTest {
+
+    @Test
+    public void publishTest(@TempDir Path directory) throws Exception {
+        Path path = directory.resolve("live");
+
+        Stopwatch stopwatch = new Stopwatch();
+        stopwatch.add(new WatchItem("query", 0, 10));
+        stopwatch.add(new WatchItem("query", 0, 30));
+        WatchItem running = new WatchItem("query", 1_000);
+        stopwatch.add(running);
+        stopwatch.add(new WatchItem("fetch", 500));
+        stopwatch.add(new WatchItem("fetch", 200));
+
+        try (LiveStatsPublisher publisher = new LiveStatsPublisher(stopwatch, path)) {
+            Assertions.assertTrue(LiveStatsReader.read(path).isEmpty());
+
+            publisher.publish();
+            List<LiveStatsReader.Entry> entries = LiveStatsReader.read(path);
+            Assertions.assertEquals(2, entries.size());
+
+            LiveStatsReader.Entry query = entries.get(0);
+            Assertions.assertEquals("query", query.getName());
+            Assertions.assertEquals(2, query.getCount());
+            Assertions.assertEquals(40, query.getTotalElapsedMilli());
+            Assertions.assertEquals(30, query.getMaxElapsedMilli());
+            Assertions.assertEquals(1, query.getInFlightCount());
+            Assertions.assertEquals(1_000, query.getOldestInFlightStartEpochMilli());
+
+            LiveStatsReader.Entry fetch = entries.get(1);
+            Assertions.assertEquals("fetch", fetch.getName());
+            Assertions.assertEquals(0, fetch.getCount());
+            Assertions.assertEquals(2, fetch.getInFlightCount());
+            Assertions.assertEquals(200, fetch.getOldestInFlightStartEpochMilli());
+            Assertions.assertTrue(fetch.getUpdateEpochMilli() > 0);
+
+            Assertions.assertEquals(5, stopwatch.watchItems.size());
+
+            stopwatch.watchItems.clear();
+            stopwatch.add(new WatchItem("parse", 0, 5));
+            publisher.publish();
+            entries = LiveStatsReader.read(path);
+            Assertions.assertEquals(3, entries.size());
+            Assertions.assertEquals(2, entries.get(0).getCount());
+            Assertions.assertEquals(1, entries.get(0).getInFlightCount());
+            Assertions.assertEquals("parse", entries.get(2).getName());
+            Assertions.assertEquals(1, entries.get(2).getCount());
+
+            running.setEndEpochMilli(1_050L);
+            stopwatch.timer("parse").time(() -> { });
+            publisher.publish();
+            entries = LiveStatsReader.read(path);
+            Assertions.assertEquals(3, entries.get(0).getCount());
+            Assertions.assertEquals(90, entries.get(0).getTotalElapsedMilli());
+            Assertions.assertEquals(50, entries.get(0).getMaxElapsedMilli());
+            Assertions.assertEquals(0, entries.get(0).getInFlightCount());
+            Assertions.assertEquals(2, entries.get(2).getCount());
+        }
+
+        stopwatch.add(new WatchItem("closed", 0, 1));
+        Assertions.assertEquals(3, LiveStatsReader.read(path).size());
+    }
+
+    @Test
+    public void capacityTest(@TempDir Path directory) throws Exception {
+        Path path = directory.resolve("live");
+
+        StringBuilder longName = new StringBuilder();
+        for (int i=0; i<LiveStatsPublisher.MAX_NAME_LENGTH; i++) {
+            longName.append(i == 0 ? "é" : "a");
+        }
+
+        Stopwatch stopwatch = new Stopwatch();
+        stopwatch.add(new WatchItem(longName.toString(), 0, 1));
+        stopwatch.add(new WatchItem("test-1", 0, 1));
+        stopwatch.add(new WatchItem("test-2", 0, 1));
+
+        try (LiveStatsPublisher publisher = new LiveStatsPublisher(stopwatch, path, 2)) {
+            publisher.publish();
+        }
+
+        List<LiveStatsReader.Entry> entries = LiveStatsReader.read(path);
+        Assertions.assertEquals(2, entries.size());
+        Assertions.assertEquals(longName.substring(0, LiveStatsPublisher.MAX_NAME_LENGTH - 1), entries.get(0).getName());
+        Assertions.assertEquals("test-1", entries.get(1).getName());
+
+        Stopwatch abandoned = new Stopwatch();
+        for (int i=0; i<=LiveStatsPublisher.MAX_IN_FLIGHT_WATCH_ITEMS; i++) {
+            abandoned.add(new WatchItem("test", i));
+        }
+        try (LiveStatsPublisher publisher = new LiveStatsPublisher(abandoned, path)) {
+            publisher.publish();
+        }
+
+        entries = LiveStatsReader.read(path);
+        Assertions.assertEquals(LiveStatsPublisher.MAX_IN_FLIGHT_WATCH_ITEMS, entries.get(0).getInFlightCount());
+        Assertions.assertEquals(1, entries.get(0).getOldestInFlightStartEpochMilli());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LiveStatsPublisher(stopwatch, path, 0));
+        Assertions.assertThrows(NullPointerException.class, () -> new LiveStatsPublisher(null, path));
+    }
+
+    @Test
+    public void startTest(@TempDir Path directory) throws Exception {
+        Path path = directory.resolve("live");
+
+        Stopwatch stopwatch = new Stopwatch();
+        try (LiveStatsPublisher publisher = new LiveStatsPublisher(stopwatch, path)) {
+            publisher.start(10);
+            Assertions.assertThrows(IllegalStateException.class, () -> publisher.start(10));
+
+            stopwatch.add(new WatchItem("test", 0, 7));
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (LiveStatsReader.read(path).isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertEquals(7, LiveStatsReader.read(path).get(0).getTotalElapsedMilli());
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package org.silentsoft.stopwatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class LiveStatsReaderTest {
+
+    @Test
+    public void printTest() {
+        List<LiveStatsReader.Entry> entries = Arrays.asList(
+                new LiveStatsReader.Entry("query", 4, 1234, 41, 3, 988, 1000),
+                new LiveStatsReader.Entry("fetch", 0, 0, 0, 0, 0, 1000)
+        );
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        LiveStatsReader.print(entries, outputStream);
+
+        String[] lines = outputStream.toString().split("\n");
+        Assertions.assertEquals(4, lines.length);
+        Assertions.assertEquals("|  name | count |      ms |     avg |  max | in-flight | oldest |", lines[0]);
+        Assertions.assertEquals("| query |     4 | 1,234ms | 308.5ms | 41ms |         3 |   12ms |", lines[2]);
+        Assertions.assertEquals("| fetch |     0 |     0ms |     0ms |  0ms |         0 |        |", lines[3]);
+
+        outputStream.reset();
+        LiveStatsReader.print(Collections.emptyList(), outputStream);
+        Assertions.assertEquals(0, outputStream.size());
+    }
+
+    @Test
+    public void formatTest(@TempDir Path directory) throws Exception {
+        Path path = directory.resolve("live");
+        Files.write(path, new byte[64]);
+        Assertions.assertThrows(IOException.class, () -> LiveStatsReader.read(path));
+
+        Files.write(path, new byte[4]);
+        Assertions.assertThrows(IOException.class, () -> LiveStatsReader.read(path));
+    }
+
+    @Test
+    public void retryTest(@TempDir Path directory) throws Exception {
+        Path path = directory.resolve("live");
+
+        Stopwatch stopwatch = new Stopwatch();
+        stopwatch.add(new WatchItem("test", 0, 3));
+        try (LiveStatsPublisher publisher = new LiveStatsPublisher(stopwatch, path)) {
+            publisher.publish();
+        }
+
+        MappedByteBuffer buffer;
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, fileChannel.size());
+        }
+        long sequence = buffer.getLong(LiveStatsPublisher.HEADER_SIZE);
+        Assertions.assertEquals(4, sequence);
+
+        buffer.putLong(LiveStatsPublisher.HEADER_SIZE, sequence + 1);
+        Thread writer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                return;
+            }
+            buffer.putLong(LiveStatsPublisher.HEADER_SIZE, sequence + 2);
+        });
+        writer.start();
+        Assertions.assertEquals(3, LiveStatsReader.read(path).get(0).getTotalElapsedMilli());
+        writer.join();
+
+        buffer.putLong(LiveStatsPublisher.HEADER_SIZE, sequence + 3);
+        Assertions.assertThrows(IOException.class, () -> LiveStatsReader.read(path));
+    }
+
+}
@@ -27,4 +27,11 @@ public class NumberFormatterTest {
         Assertions.assertEquals("1.000s", NumberFormatter.seconds(1));
     }
 
+    @Test
+    public void rateTest() {
+        Assertions.assertEquals("0.0/s", NumberFormatter.rate(0));
+        Assertions.assertEquals("42.0/s", NumberFormatter.rate(42));
+        Assertions.assertEquals("1,234.6/s", NumberFormatter.rate(1234.56));
+    }
+
 }
@@ -0,0 +1,115 @@
+package org.silentsoft.stopwatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class PeriodicReporterTest {
+
+    @Test
+    public void reportTest() {
+        Stopwatch stopwatch = new Stopwatch();
+        List<Collection<WatchStatistics>> intervals = new ArrayList<>();
+        PeriodicReporter reporter = new PeriodicReporter(stopwatch, (intervalMilliseconds, statistics) -> {
+            Assertions.assertTrue(intervalMilliseconds >= 0);
+            intervals.add(statistics);
+        });
+
+        stopwatch.add(new WatchItem("test-1", 0, 10));
+        stopwatch.add(new WatchItem("test-1", 0, 20));
+        stopwatch.add(new WatchItem("test-2", 0, 30));
+        stopwatch.start("test-3");
+        reporter.report();
+
+        stopwatch.stop("test-3");
+        reporter.report();
+        reporter.report();
+
+        Assertions.assertEquals(3, intervals.size());
+        {
+            List<WatchStatistics> statistics = new ArrayList<>(intervals.get(0));
+            Assertions.assertEquals(2, statistics.size());
+            Assertions.assertEquals("test-1", statistics.get(0).getName());
+            Assertions.assertEquals(2, statistics.get(0).getCount());
+            Assertions.assertEquals(30, statistics.get(0).getTotalElapsedMilli());
+            Assertions.assertEquals("test-2", statistics.get(1).getName());
+        }
+        {
+            List<WatchStatistics> statistics = new ArrayList<>(intervals.get(1));
+            Assertions.assertEquals(1, statistics.size());
+            Assertions.assertEquals("test-3", statistics.get(0).getName());
+        }
+        Assertions.assertTrue(intervals.get(2).isEmpty());
+        Assertions.assertTrue(stopwatch.watchItems.isEmpty());
+    }
+
+    @Test
+    public void startTest() throws Exception {
+        Stopwatch stopwatch = new Stopwatch();
+        CountDownLatch latch = new CountDownLatch(1);
+        try (PeriodicReporter reporter = new PeriodicReporter(stopwatch, (intervalMilliseconds, statistics) -> {
+            if (statistics.isEmpty() == false) {
+                latch.countDown();
+            }
+        })) {
+            reporter.start(5);
+            Assertions.assertThrows(IllegalStateException.class, () -> reporter.start(5));
+
+            stopwatch.start("test", () -> { });
+            Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void tableTest() {
+        WatchStatistics statistics = new WatchStatistics("test");
+        statistics.add(1000);
+        statistics.add(2000);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PeriodicReporter.table(outputStream).report(2000, new ArrayList<>());
+        Assertions.assertEquals(0, outputStream.size());
+
+        PeriodicReporter.table(outputStream).report(2000, Collections.singletonList(statistics));
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("|  name | count |  rate |      ms |     avg |\n");
+        builder.append("|-------|-------|-------|---------|---------|\n");
+        builder.append("|  test |     2 | 1.0/s | 3,000ms | 1,500ms |\n");
+        builder.append("|       |       |       |         |         |\n");
+        builder.append("| total |     2 | 1.0/s | 3,000ms | 1,500ms |\n");
+
+        Assertions.assertEquals(builder.toString(), new String(outputStream.toByteArray()));
+    }
+
+    @Test
+    public void exceptionTest() {
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new PeriodicReporter(null, (intervalMilliseconds, statistics) -> { });
+        });
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new PeriodicReporter(new Stopwatch(), null);
+        });
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            PeriodicReporter.table(null);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            try (PeriodicReporter reporter = new PeriodicReporter(new Stopwatch(), (intervalMilliseconds, statistics) -> { })) {
+                reporter.start(0);
+            }
+        });
+        Assertions.assertDoesNotThrow(() -> {
+            new PeriodicReporter(new Stopwatch(), (intervalMilliseconds, statistics) -> {
+                throw new RuntimeException();
+            }).close();
+        });
+    }
+
+}
@@ -0,0 +1,140 @@
+package org.silentsoft.stopwatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RepeatResultTest {
+
+    @Test
+    public void statisticsTest() {
+        RepeatResult.Samples samples = new RepeatResult.Samples();
+        for (long nanos : new long[] { 10, 12, 11, 13, 12, 11, 10, 12, 1000, 1 }) {
+            samples.add(nanos);
+        }
+        RepeatResult result = new RepeatResult("test", 10, samples);
+
+        Assertions.assertEquals("test", result.getName());
+        Assertions.assertEquals(10, result.getIterations());
+        Assertions.assertEquals(109.2, result.getMeanNanos(), 1e-9);
+        Assertions.assertEquals(1, result.getMinNanos());
+        Assertions.assertEquals(1000, result.getMaxNanos());
+        Assertions.assertEquals(1, result.getLowOutliers());
+        Assertions.assertEquals(1, result.getHighOutliers());
+        Assertions.assertEquals(313.0, result.getStandardDeviationNanos(), 1.0);
+        Assertions.assertEquals(3.250 * result.getStandardDeviationNanos() / Math.sqrt(10), result.getConfidenceIntervalNanos(), 1e-9);
+
+        RepeatResult single = new Stopwatch().repeat("test", 0, 1, () -> { });
+        Assertions.assertEquals(1, single.getSamples());
+        Assertions.assertEquals(single.getMinNanos(), single.getMaxNanos());
+        Assertions.assertEquals(0, single.getStandardDeviationNanos());
+        Assertions.assertEquals(0, single.getConfidenceIntervalNanos());
+    }
+
+    @Test
+    public void reservoirTest() {
+        RepeatResult.Samples samples = new RepeatResult.Samples();
+        for (int i=0; i<100_000; i++) {
+            samples.add(i % 100 == 0 ? 1_000_000 : 100 + (i % 10));
+        }
+        Assertions.assertEquals(100_000, samples.getCount());
+
+        RepeatResult result = new RepeatResult("test", 100_000, samples);
+        Assertions.assertEquals(100_000, result.getSamples());
+        Assertions.assertEquals(100, result.getMinNanos());
+        Assertions.assertEquals(1_000_000, result.getMaxNanos());
+        Assertions.assertEquals(10_103.5, result.getMeanNanos(), 1e-6);
+        Assertions.assertEquals(0, result.getLowOutliers());
+        Assertions.assertEquals(1_000, result.getHighOutliers(), 300);
+    }
+
+    @Test
+    public void repeatTest() {
+        Stopwatch stopwatch = new Stopwatch();
+        AtomicInteger runs = new AtomicInteger();
+
+        RepeatResult result = stopwatch.repeat("test", 5, 3000, () -> runs.incrementAndGet());
+        Assertions.assertEquals(3005, runs.get());
+        Assertions.assertEquals(3000, result.getIterations());
+        Assertions.assertTrue(result.getSamples() < 3000);
+        Assertions.assertTrue(result.getMeanNanos() > 0);
+        Assertions.assertTrue(result.getMinNanos() <= result.getMaxNanos());
+        Assertions.assertEquals(1, stopwatch.getStatistics().get("test").getCount());
+
+        RepeatResult consumed = stopwatch.repeat("consumed", 0, 10, blackhole -> {
+            blackhole.consume(Integer.parseInt("42"));
+            blackhole.consume(new Object());
+            blackhole.consume(1.0);
+            blackhole.consume(true);
+        });
+        Assertions.assertEquals(10, consumed.getIterations());
+
+        RepeatResult budgeted = stopwatch.repeat("budgeted", 0, Duration.ofMillis(20), () -> { });
+        Assertions.assertTrue(budgeted.getIterations() >= 2);
+
+        RepeatResult empty = stopwatch.repeat("empty", 0, Duration.ZERO, () -> { });
+        Assertions.assertEquals(2, empty.getSamples());
+        Assertions.assertTrue(empty.getIterations() >= 2);
+
+        Assertions.assertEquals(4, stopwatch.getStatistics().size());
+    }
+
+    @Test
+    public void printTest() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        RepeatResult.print(outputStream);
+        Assertions.assertEquals(0, outputStream.size());
+
+        Stopwatch stopwatch = new Stopwatch();
+        RepeatResult.print(outputStream, stopwatch.repeat("test-1", 0, 10, () -> { }), stopwatch.repeat("test-2", 0, 10, () -> { }));
+
+        String[] lines = new String(outputStream.toByteArray()).split("\n");
+        Assertions.assertEquals(4, lines.length);
+        Assertions.assertTrue(lines[0].matches("\\|\\s+name \\|\\s+n \\|\\s+mean \\|\\s+99% ci \\|\\s+stddev \\|\\s+min \\|\\s+max \\|\\s+outliers \\|"));
+        Assertions.assertTrue(lines[2].startsWith("| test-1 | "));
+        Assertions.assertTrue(lines[3].startsWith("| test-2 | "));
+
+        RepeatResult.Samples samples = new RepeatResult.Samples();
+        samples.add(1_000_000);
+        samples.add(3_000_000);
+
+        outputStream.reset();
+        RepeatResult.print(outputStream, new RepeatResult("test", 2, samples));
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("| name | n | mean |   99% ci |  stddev | min | max | outliers |\n");
+        builder.append("|------|---|------|----------|---------|-----|-----|----------|\n");
+        builder.append("| test | 2 |  2ms | 63.657ms | 1.414ms | 1ms | 3ms |        0 |\n");
+
+        Assertions.assertEquals(builder.toString(), new String(outputStream.toByteArray()));
+    }
+
+    @Test
+    public void exceptionTest() {
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new Stopwatch().repeat(null, 0, 1, () -> { });
+        });
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new Stopwatch().repeat("test", 0, 1, (Runnable) null);
+        });
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new Stopwatch().repeat("test", 0, (Duration) null, () -> { });
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new Stopwatch().repeat("test", -1, 1, () -> { });
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new Stopwatch().repeat("test", 0, 0, () -> { });
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new Stopwatch().repeat("test", 0, Duration.ofMillis(-1), () -> { });
+        });
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            RepeatResult.print(null);
+        });
+    }
+
+}
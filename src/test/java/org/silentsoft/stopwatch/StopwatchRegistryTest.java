@@ -0,0 +1,127 @@
+package org.silentsoft.stopwatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class StopwatchRegistryTest {
+
+    @Test
+    public void currentTest() throws Exception {
+        StopwatchRegistry registry = new StopwatchRegistry(Runnable::run);
+
+        Stopwatch stopwatch = registry.current();
+        Assertions.assertSame(stopwatch, registry.current());
+
+        Stopwatch[] stopwatchOfOtherThread = new Stopwatch[1];
+        Thread thread = new Thread(() -> stopwatchOfOtherThread[0] = registry.current());
+        thread.start();
+        thread.join();
+        Assertions.assertNotNull(stopwatchOfOtherThread[0]);
+        Assertions.assertNotSame(stopwatch, stopwatchOfOtherThread[0]);
+
+        registry.release();
+        Assertions.assertNotSame(stopwatch, registry.current());
+    }
+
+    @Test
+    public void releaseTest() throws Exception {
+        StopwatchRegistry registry = new StopwatchRegistry(Runnable::run);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        CountDownLatch latch = new CountDownLatch(100);
+        for (int i=0; i<100; i++) {
+            executorService.execute(() -> {
+                registry.current().add(new WatchItem("query", 0, 10));
+                registry.current().add(new WatchItem("render", 0, 5));
+                registry.current().start("unfinished");
+                registry.release();
+                latch.countDown();
+            });
+        }
+        Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executorService.shutdown();
+
+        Map<String, WatchStatistics> statistics = registry.getStatistics();
+        Assertions.assertEquals(2, statistics.size());
+        Assertions.assertEquals(100, statistics.get("query").getCount());
+        Assertions.assertEquals(1000, statistics.get("query").getTotalElapsedMilli());
+        Assertions.assertEquals(100, statistics.get("render").getCount());
+        Assertions.assertEquals(500, statistics.get("render").getTotalElapsedMilli());
+
+        registry.clear();
+        Assertions.assertTrue(registry.getStatistics().isEmpty());
+    }
+
+    @Test
+    public void closeTest() {
+        int[] numberOfMerges = new int[1];
+        StopwatchRegistry registry = new StopwatchRegistry() {
+            @Override
+            protected void merge(Stopwatch stopwatch) {
+                numberOfMerges[0]++;
+                super.merge(stopwatch);
+            }
+        };
+
+        registry.release();
+        registry.current().add(new WatchItem("test", 0, 10));
+        registry.release();
+        registry.close();
+        Assertions.assertEquals(1, numberOfMerges[0]);
+        Assertions.assertEquals(1, registry.getStatistics().get("test").getCount());
+
+        registry.current().add(new WatchItem("test", 0, 10));
+        registry.release();
+        Assertions.assertEquals(2, numberOfMerges[0]);
+        Assertions.assertEquals(2, registry.getStatistics().get("test").getCount());
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        new StopwatchRegistry(executorService).close();
+        Assertions.assertFalse(executorService.isShutdown());
+        executorService.shutdown();
+    }
+
+    @Test
+    public void printTest() {
+        StopwatchRegistry registry = new StopwatchRegistry(Runnable::run);
+        registry.current().add(new WatchItem("test-1", 0, 1000));
+        registry.current().add(new WatchItem("test-1", 0, 500));
+        registry.current().add(new WatchItem("test-2", 0, 500));
+        registry.release();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        registry.print(outputStream);
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("|   name | count |     % |      ms |      s |\n");
+        builder.append("|--------|-------|-------|---------|--------|\n");
+        builder.append("| test-1 |     2 | 75.0% | 1,500ms | 1.500s |\n");
+        builder.append("| test-2 |     1 | 25.0% |   500ms | 0.500s |\n");
+        builder.append("|        |       |       |         |        |\n");
+        builder.append("|  total |     3 |  100% | 2,000ms | 2.000s |\n");
+
+        Assertions.assertEquals(builder.toString(), new String(outputStream.toByteArray()));
+        Assertions.assertEquals(2, registry.getStatistics().size());
+    }
+
+    @Test
+    public void exceptionTest() {
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new StopwatchRegistry(null);
+        });
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new StopwatchRegistry().print(null);
+        });
+        Assertions.assertDoesNotThrow(() -> {
+            new StopwatchRegistry().print();
+        });
+    }
+
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class StopwatchTest {
@@ -108,6 +109,24 @@ public class StopwatchTest {
         Assertions.assertEquals(1.234, stopwatch.getTotalElapsedSeconds());
     }
 
+    @Test
+    public void getStatisticsTest() {
+        Stopwatch stopwatch = new Stopwatch();
+        stopwatch.add(new WatchItem("test-2", 0, 10));
+        stopwatch.add(new WatchItem("test-1", 0, 100));
+        stopwatch.add(new WatchItem("test-2", 0, 30));
+        stopwatch.start("test-3");
+
+        Map<String, WatchStatistics> statistics = stopwatch.getStatistics();
+        Assertions.assertArrayEquals(new String[] { "test-2", "test-1" }, statistics.keySet().toArray());
+        Assertions.assertEquals(2, statistics.get("test-2").getCount());
+        Assertions.assertEquals(40, statistics.get("test-2").getTotalElapsedMilli());
+        Assertions.assertEquals(10, statistics.get("test-2").getMinElapsedMilli());
+        Assertions.assertEquals(30, statistics.get("test-2").getMaxElapsedMilli());
+        Assertions.assertEquals(1, statistics.get("test-1").getCount());
+        Assertions.assertEquals(4, stopwatch.watchItems.size());
+    }
+
     @Test
     public void printTest() {
         {
@@ -194,6 +213,184 @@ public class StopwatchTest {
         }
     }
 
+    @Test
+    public void drainTest() {
+        Stopwatch stopwatch = new Stopwatch();
+        stopwatch.start("test-1");
+        stopwatch.add(new WatchItem("test-2", 0, 10));
+        stopwatch.add(new WatchItem("test-3", 0, 20));
+
+        Stopwatch drained = stopwatch.drain();
+        Assertions.assertEquals(2, drained.watchItems.size());
+        Assertions.assertEquals("test-2", drained.watchItems.get(0).getName());
+        Assertions.assertEquals("test-3", drained.watchItems.get(1).getName());
+        Assertions.assertEquals(1, stopwatch.watchItems.size());
+
+        stopwatch.stop("test-1");
+        Assertions.assertNotNull(stopwatch.watchItems.get(0).getEndEpochMilli());
+
+        stopwatch.calibrate();
+        stopwatch.setOverheadCompensated(true);
+        drained = stopwatch.drain();
+        Assertions.assertEquals(stopwatch.getOverheadNanos(), drained.getOverheadNanos());
+        Assertions.assertTrue(drained.isOverheadCompensated());
+
+        Assertions.assertTrue(new ThreadStateStopwatch().drain() instanceof ThreadStateStopwatch);
+    }
+
+    @Test
+    public void printWithoutClosingTest() {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        Stopwatch stopwatch = new Stopwatch();
+        stopwatch.add(new WatchItem("test", 0, 1000));
+        stopwatch.print(outputStream);
+        stopwatch.add(new WatchItem("test", 0, 1000));
+        stopwatch.print(outputStream);
+
+        Assertions.assertFalse(closed.get());
+        Assertions.assertEquals(10, new String(outputStream.toByteArray()).split("\n").length);
+    }
+
+    @Test
+    public void calibrateTest() {
+        Stopwatch stopwatch = new Stopwatch();
+        Assertions.assertEquals(-1, stopwatch.getOverheadNanos());
+        Assertions.assertFalse(stopwatch.isOverheadCompensated());
+
+        stopwatch.add(new WatchItem("test", 0, 1000));
+        long overheadNanos = stopwatch.calibrate();
+        Assertions.assertTrue(overheadNanos >= 0);
+        Assertions.assertEquals(overheadNanos, stopwatch.getOverheadNanos());
+        Assertions.assertEquals(1, stopwatch.watchItems.size());
+
+        stopwatch.overheadNanos = 200_000_000;
+        Assertions.assertEquals(1000, stopwatch.getTotalElapsedMilliseconds());
+        stopwatch.setOverheadCompensated(true);
+        Assertions.assertEquals(800, stopwatch.getTotalElapsedMilliseconds());
+
+        stopwatch.setOverheadCompensated(false);
+        stopwatch.overheadNanos = 2_500_000;
+        stopwatch.add(new WatchItem("test", 0, 1000));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        stopwatch.print(outputStream);
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("|     name |     % |      ms |      s |\n");
+        builder.append("|----------|-------|---------|--------|\n");
+        builder.append("|     test | 50.0% | 1,000ms | 1.000s |\n");
+        builder.append("|     test | 50.0% | 1,000ms | 1.000s |\n");
+        builder.append("|          |       |         |        |\n");
+        builder.append("|    total |  100% | 2,000ms | 2.000s |\n");
+        builder.append("| overhead |  0.2% |     5ms | 0.005s |\n");
+
+        Assertions.assertEquals(builder.toString(), new String(outputStream.toByteArray()));
+
+        stopwatch.setOverheadCompensated(true);
+        stopwatch.overheadNanos = 250_000_000;
+        stopwatch.add(new WatchItem("test", 0, 1000));
+        stopwatch.add(new WatchItem("test", 0, 3000));
+        stopwatch.start("test");
+
+        outputStream = new ByteArrayOutputStream();
+        stopwatch.print(outputStream);
+
+        builder = new StringBuilder();
+        builder.append("|     name |     % |      ms |      s |\n");
+        builder.append("|----------|-------|---------|--------|\n");
+        builder.append("|     test | 21.4% |   750ms | 0.750s |\n");
+        builder.append("|     test | 78.6% | 2,750ms | 2.750s |\n");
+        builder.append("|     test |       |     N/A |    N/A |\n");
+        builder.append("|          |       |         |        |\n");
+        builder.append("|    total |  100% | 3,500ms | 3.500s |\n");
+        builder.append("| overhead | 12.5% |   500ms | 0.500s |\n");
+
+        Assertions.assertEquals(builder.toString(), new String(outputStream.toByteArray()));
+        stopwatch.watchItems.clear();
+
+        stopwatch.add(new WatchItem("test", 0, 1000));
+        stopwatch.add(new WatchItem("test", 0, 3000));
+        stopwatch.add(new WatchItem("other", 0, 1000));
+
+        outputStream = new ByteArrayOutputStream();
+        ReportOptions options = new ReportOptions();
+        options.setLimit(1);
+        options.setGroupByName(true);
+        stopwatch.print(outputStream, options);
+
+        builder = new StringBuilder();
+        builder.append("|      name | count |     % |      ms |      s |     max |\n");
+        builder.append("|-----------|-------|-------|---------|--------|---------|\n");
+        builder.append("|      test |     2 | 82.4% | 3,500ms | 3.500s | 2,750ms |\n");
+        builder.append("| other (1) |     1 | 17.6% |   750ms | 0.750s |   750ms |\n");
+        builder.append("|           |       |       |         |        |         |\n");
+        builder.append("|     total |     3 |  100% | 4,250ms | 4.250s | 2,750ms |\n");
+        builder.append("|  overhead |       | 15.0% |   750ms | 0.750s |         |\n");
+
+        Assertions.assertEquals(builder.toString(), new String(outputStream.toByteArray()));
+
+        stopwatch.overheadNanos = 500_000;
+        stopwatch.add(new WatchItem("test", 0, 1000));
+        Assertions.assertEquals(1000, stopwatch.getTotalElapsedMilliseconds());
+    }
+
+    @Test
+    public void lapTest() {
+        Stopwatch stopwatch = new Stopwatch();
+        stopwatch.start("test-1");
+        stopwatch.start("test-2");
+        stopwatch.lap("parse");
+        stopwatch.lap("test-1", "load");
+        stopwatch.lap("none", "ignored");
+
+        Assertions.assertEquals(1, stopwatch.watchItems.get(0).getLapCount());
+        Assertions.assertEquals("load", stopwatch.watchItems.get(0).getLapLabel(0));
+        Assertions.assertEquals(1, stopwatch.watchItems.get(1).getLapCount());
+        Assertions.assertEquals("parse", stopwatch.watchItems.get(1).getLapLabel(0));
+
+        Stopwatch printStopwatch = new Stopwatch();
+        long now = System.currentTimeMillis();
+        WatchItem watchItem = new WatchItem("test", now - 1000);
+        watchItem.lap("load");
+        watchItem.setEndEpochMilli(watchItem.getStartEpochMilli() + 2000);
+        printStopwatch.add(watchItem);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        printStopwatch.print(outputStream);
+
+        String[] lines = new String(outputStream.toByteArray()).split("\\n");
+        Assertions.assertEquals(7, lines.length);
+        Assertions.assertTrue(lines[2].startsWith("|     test |  100% | 2,000ms |"));
+        Assertions.assertTrue(lines[3].startsWith("|   - load | "));
+        Assertions.assertTrue(lines[4].startsWith("| - (stop) | "));
+
+        WatchItem lapped = new WatchItem("test");
+        lapped.lap("load");
+        lapped.setEndEpochMilli(lapped.getStartEpochMilli() + 100L);
+        printStopwatch.add(lapped);
+        printStopwatch.add(new WatchItem("test", 0, 100));
+
+        ReportOptions options = new ReportOptions();
+        options.setGroupByName(true);
+        outputStream.reset();
+        printStopwatch.print(outputStream, options);
+
+        lines = outputStream.toString().split("\n");
+        Assertions.assertEquals(7, lines.length);
+        Assertions.assertTrue(lines[2].startsWith("|     test |     2 |  100% | 200ms |"));
+        Assertions.assertTrue(lines[3].startsWith("|   - load |       | "));
+        Assertions.assertTrue(lines[4].startsWith("| - (stop) |       | "));
+
+        Assertions.assertThrows(NullPointerException.class, () -> stopwatch.lap(null));
+    }
+
     @Test
     public void exceptionTest() {
         Assertions.assertThrows(NullPointerException.class, () -> {
@@ -255,4 +452,98 @@ public class StopwatchTest {
         });
     }
 
+    @Test
+    public void printWithOptionsTest() {
+        ReportOptions options = new ReportOptions();
+        options.setLimit(2);
+
+        Stopwatch stopwatch = new Stopwatch();
+        stopwatch.add(new WatchItem("test-1", 0, 10));
+        stopwatch.add(new WatchItem("test-2", 0, 40));
+        stopwatch.add(new WatchItem("test-3", 0, 20));
+        stopwatch.add(new WatchItem("test-4", 0, 30));
+        stopwatch.add(new WatchItem("test-2", 0, 0));
+        stopwatch.start("test-5");
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        stopwatch.print(outputStream, options);
+        Assertions.assertEquals(1, stopwatch.watchItems.size());
+        Assertions.assertEquals("test-5", stopwatch.watchItems.get(0).getName());
+        Assertions.assertArrayEquals(new String[] {
+                "|      name |     % |    ms |      s |",
+                "|-----------|-------|-------|--------|",
+                "|    test-2 | 40.0% |  40ms | 0.040s |",
+                "|    test-4 | 30.0% |  30ms | 0.030s |",
+                "| other (3) | 30.0% |  30ms | 0.030s |",
+                "|           |       |       |        |",
+                "|     total |  100% | 100ms | 0.100s |"
+        }, outputStream.toString().split("\n"));
+
+        options.setGroupByName(true);
+        options.setLimit(0);
+        options.setMinPercentage(20.0);
+        stopwatch.add(new WatchItem("test-1", 0, 10));
+        stopwatch.add(new WatchItem("test-2", 0, 40));
+        stopwatch.add(new WatchItem("test-1", 0, 5));
+        stopwatch.add(new WatchItem("test-3", 0, 45));
+
+        outputStream.reset();
+        stopwatch.print(outputStream, options);
+        Assertions.assertArrayEquals(new String[] {
+                "|      name | count |     % |    ms |      s |  max |",
+                "|-----------|-------|-------|-------|--------|------|",
+                "|    test-3 |     1 | 45.0% |  45ms | 0.045s | 45ms |",
+                "|    test-2 |     1 | 40.0% |  40ms | 0.040s | 40ms |",
+                "| other (2) |     2 | 15.0% |  15ms | 0.015s | 10ms |",
+                "|           |       |       |       |        |      |",
+                "|     total |     4 |  100% | 100ms | 0.100s | 45ms |"
+        }, outputStream.toString().split("\n"));
+        Assertions.assertEquals(1, stopwatch.watchItems.size());
+        Assertions.assertEquals("test-5", stopwatch.watchItems.get(0).getName());
+
+        options.setMinPercentage(0);
+        options.setSortBy(ReportOptions.SortBy.COUNT);
+        options.setLimit(1);
+        stopwatch.add(new WatchItem("test-1", 0, 10));
+        stopwatch.add(new WatchItem("test-2", 0, 40));
+        stopwatch.add(new WatchItem("test-1", 0, 5));
+
+        outputStream.reset();
+        stopwatch.print(outputStream, options);
+        String[] lines = outputStream.toString().split("\n");
+        Assertions.assertTrue(lines[2].startsWith("|    test-1 |     2 |"));
+        Assertions.assertTrue(lines[3].startsWith("| other (1) |     1 |"));
+
+        options.setSortBy(ReportOptions.SortBy.TOTAL);
+        options.setGroupByName(false);
+        stopwatch.add(new WatchItem("test-1", 0, 10));
+        for (int i=0; i<1000; i++) {
+            stopwatch.add(new WatchItem("test-2", 0, 1));
+        }
+
+        outputStream.reset();
+        stopwatch.print(outputStream, options);
+        lines = outputStream.toString().split("\n");
+        Assertions.assertTrue(lines[3].startsWith("| other (1000) | "));
+
+        options.setGroupByName(true);
+        options.setSortBy(ReportOptions.SortBy.COUNT);
+        stopwatch.add(new WatchItem("test-1", 0, 10));
+        for (int i=0; i<1000; i++) {
+            stopwatch.add(new WatchItem("test-2", 0, 1));
+        }
+
+        outputStream.reset();
+        stopwatch.print(outputStream, options);
+        lines = outputStream.toString().split("\n");
+        Assertions.assertTrue(lines[2].startsWith("|    test-2 |  1000 |"));
+        Assertions.assertTrue(lines[3].startsWith("| other (1) |     1 |"));
+        Assertions.assertTrue(lines[5].startsWith("|     total |  1001 |"));
+
+        Assertions.assertThrows(NullPointerException.class, () -> stopwatch.print(outputStream, null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> options.setLimit(-1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> options.setMinPercentage(101));
+        Assertions.assertThrows(NullPointerException.class, () -> options.setSortBy(null));
+    }
+
 }
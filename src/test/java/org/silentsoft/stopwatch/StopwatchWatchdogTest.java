@@ -0,0 +1,132 @@
+package org.silentsoft.stopwatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StopwatchWatchdogTest {
+
+    @Test
+    public void checkTest() {
+        Stopwatch stopwatch = new Stopwatch();
+        stopwatch.setThreshold("slow", 100);
+
+        List<WatchItem> reportedWatchItems = new ArrayList<>();
+        List<StackTraceElement[]> stackTraces = new ArrayList<>();
+        StopwatchWatchdog watchdog = new StopwatchWatchdog(stopwatch, (watchItem, stackTrace) -> {
+            reportedWatchItems.add(watchItem);
+            stackTraces.add(stackTrace);
+        });
+
+        long now = System.currentTimeMillis();
+        stopwatch.add(new WatchItem("slow", now - 1000));
+        stopwatch.add(new WatchItem("slow", now));
+        stopwatch.add(new WatchItem("other", now - 1000));
+        stopwatch.add(new WatchItem("slow", now - 2000, now));
+        {
+            WatchItem watchItem = new WatchItem("slow", now - 1000);
+            watchItem.setTotalPausedMilli(950);
+            stopwatch.add(watchItem);
+        }
+
+        watchdog.check();
+        Assertions.assertEquals(1, reportedWatchItems.size());
+        Assertions.assertSame(stopwatch.watchItems.get(0), reportedWatchItems.get(0));
+        Assertions.assertTrue(stackTraces.get(0).length > 0);
+
+        watchdog.check();
+        Assertions.assertEquals(1, reportedWatchItems.size());
+
+        stopwatch.removeThreshold("slow");
+        stopwatch.setThreshold("other", 0);
+        stopwatch.add(new WatchItem("other", now - 1000));
+        watchdog.check();
+        Assertions.assertEquals(2, reportedWatchItems.size());
+        Assertions.assertSame(stopwatch.watchItems.getLast(), reportedWatchItems.get(1));
+
+        watchdog.close();
+        stopwatch.add(new WatchItem("other", now - 1000));
+        watchdog.check();
+        Assertions.assertEquals(2, reportedWatchItems.size());
+    }
+
+    @Test
+    public void resumeTest() throws Exception {
+        Stopwatch stopwatch = new Stopwatch();
+        stopwatch.setThreshold("test", 1000);
+
+        AtomicInteger numberOfExceeded = new AtomicInteger();
+        try (StopwatchWatchdog watchdog = new StopwatchWatchdog(stopwatch, (watchItem, stackTrace) -> numberOfExceeded.incrementAndGet())) {
+            for (int i=0; i<500; i++) {
+                long now = System.currentTimeMillis();
+                WatchItem watchItem = new WatchItem("test", now - 10_000);
+                watchItem.setPauseEpochMilli(now - 9_999);
+                stopwatch.add(watchItem);
+
+                Thread thread = new Thread(watchItem::resume);
+                thread.start();
+                while (thread.isAlive()) {
+                    watchdog.check();
+                }
+                thread.join();
+                watchdog.check();
+
+                watchItem.stop();
+            }
+        }
+
+        Assertions.assertEquals(0, numberOfExceeded.get());
+    }
+
+    @Test
+    public void startTest() throws Exception {
+        Stopwatch stopwatch = new Stopwatch();
+        stopwatch.setThreshold("slow", 10);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        try (StopwatchWatchdog watchdog = new StopwatchWatchdog(stopwatch, (watchItem, stackTrace) -> latch.countDown())) {
+            watchdog.start(5);
+            Assertions.assertThrows(IllegalStateException.class, () -> watchdog.start(5));
+
+            stopwatch.start("slow");
+            Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+            stopwatch.stop();
+        }
+    }
+
+    @Test
+    public void exceptionTest() {
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new StopwatchWatchdog(null, (watchItem, stackTrace) -> { });
+        });
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new StopwatchWatchdog(new Stopwatch(), null);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new StopwatchWatchdog(new Stopwatch(), (watchItem, stackTrace) -> { }).start(0);
+        });
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new Stopwatch().setThreshold(null, 0);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new Stopwatch().setThreshold("test", -1);
+        });
+        Assertions.assertDoesNotThrow(() -> {
+            Stopwatch stopwatch = new Stopwatch();
+            stopwatch.setThreshold("test", 0);
+            stopwatch.start("test");
+            new StopwatchWatchdog(stopwatch, (watchItem, stackTrace) -> {
+                throw new RuntimeException();
+            }).check();
+            Assertions.assertNull(stopwatch.getThreshold(null));
+            stopwatch.removeThreshold(null);
+            new StopwatchWatchdog(stopwatch, (watchItem, stackTrace) -> { }).close();
+        });
+    }
+
+}
@@ -0,0 +1,70 @@
+package org.silentsoft.stopwatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ThreadStateSamplerTest {
+
+    @Test
+    public void sampleTest() throws Exception {
+        ThreadStateStopwatch stopwatch = new ThreadStateStopwatch(ThreadStateStopwatchTest.createUnavailableThreadMXBean());
+        stopwatch.start("before");
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ThreadStateSampler sampler = new ThreadStateSampler(stopwatch)) {
+            Thread thread = new Thread(() -> {
+                stopwatch.start("test");
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                stopwatch.stop("test");
+            });
+            thread.start();
+
+            Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+            while (thread.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+            sampler.sample();
+            sampler.sample();
+
+            release.countDown();
+            thread.join();
+            sampler.sample();
+
+            ThreadStateWatchItem watchItem = (ThreadStateWatchItem) stopwatch.watchItems.get(1);
+            Assertions.assertEquals(watchItem.getElapsedMilli(), watchItem.getWaitedMilli());
+        }
+
+        stopwatch.start("after");
+        ThreadStateWatchItem before = (ThreadStateWatchItem) stopwatch.watchItems.get(0);
+        before.stop();
+        Assertions.assertNull(before.getCpuMilli());
+    }
+
+    @Test
+    public void startTest() {
+        try (ThreadStateSampler sampler = new ThreadStateSampler(new ThreadStateStopwatch())) {
+            sampler.start(1);
+            Assertions.assertThrows(IllegalStateException.class, () -> sampler.start(1));
+        }
+    }
+
+    @Test
+    public void exceptionTest() {
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new ThreadStateSampler(null);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new ThreadStateSampler(new ThreadStateStopwatch()).start(0);
+        });
+    }
+
+}
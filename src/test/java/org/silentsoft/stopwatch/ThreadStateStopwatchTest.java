@@ -0,0 +1,119 @@
+package org.silentsoft.stopwatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Proxy;
+
+public class ThreadStateStopwatchTest {
+
+    static ThreadMXBean createUnavailableThreadMXBean() {
+        return (ThreadMXBean) Proxy.newProxyInstance(ThreadMXBean.class.getClassLoader(), new Class<?>[] { ThreadMXBean.class }, (proxy, method, args) -> {
+            if (method.getReturnType() == boolean.class) {
+                return false;
+            }
+            if (method.getReturnType() == long.class) {
+                return -1L;
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void createWatchItemTest() {
+        ThreadStateStopwatch stopwatch = new ThreadStateStopwatch();
+        stopwatch.start("test");
+        stopwatch.start("test", () -> { });
+
+        Assertions.assertTrue(stopwatch.watchItems.get(0) instanceof ThreadStateWatchItem);
+        Assertions.assertTrue(stopwatch.watchItems.get(1) instanceof ThreadStateWatchItem);
+    }
+
+    @Test
+    public void threadStateTest() throws Exception {
+        ThreadStateWatchItem.enableThreadContentionMonitoring();
+
+        ThreadStateWatchItem watchItem = new ThreadStateWatchItem("test");
+        Assertions.assertNull(watchItem.getCpuMilli());
+        Assertions.assertNull(watchItem.getWaitedMilli());
+
+        Thread.sleep(50);
+
+        watchItem.pause();
+        Thread.sleep(50);
+        watchItem.resume();
+
+        Object lock = new Object();
+        synchronized (lock) {
+            lock.wait(50);
+        }
+
+        watchItem.stop();
+
+        Assertions.assertNotNull(watchItem.getCpuMilli());
+        Assertions.assertTrue(watchItem.getCpuMilli() <= watchItem.getElapsedMilli());
+        if (watchItem.getWaitedMilli() != null) {
+            Assertions.assertTrue(watchItem.getWaitedMilli() >= 90);
+        }
+        if (watchItem.getBlockedMilli() != null) {
+            Assertions.assertTrue(watchItem.getBlockedMilli() >= 0);
+        }
+    }
+
+    @Test
+    public void sampleTest() {
+        ThreadMXBean threadMXBean = createUnavailableThreadMXBean();
+
+        ThreadStateWatchItem watchItem = new ThreadStateWatchItem("test", threadMXBean);
+
+        watchItem.sample(Thread.State.RUNNABLE);
+        watchItem.sample(Thread.State.WAITING);
+        watchItem.sample(Thread.State.TIMED_WAITING);
+        watchItem.sample(Thread.State.BLOCKED);
+        watchItem.pause();
+        watchItem.sample(Thread.State.RUNNABLE);
+        watchItem.resume();
+        watchItem.stop();
+        watchItem.sample(Thread.State.RUNNABLE);
+
+        watchItem.setStartEpochMilli(0);
+        watchItem.setEndEpochMilli(1000L);
+        watchItem.setTotalPausedMilli(0);
+        Assertions.assertEquals(250, watchItem.getCpuMilli());
+        Assertions.assertEquals(250, watchItem.getBlockedMilli());
+        Assertions.assertEquals(500, watchItem.getWaitedMilli());
+
+        ThreadStateWatchItem unsampled = new ThreadStateWatchItem("test", threadMXBean);
+        unsampled.stop();
+        Assertions.assertNull(unsampled.getCpuMilli());
+    }
+
+    @Test
+    public void printTest() {
+        ThreadStateStopwatch stopwatch = new ThreadStateStopwatch(createUnavailableThreadMXBean());
+        stopwatch.add(new WatchItem("test", 0, 1000));
+        stopwatch.start("sampled");
+        stopwatch.lap("first");
+        stopwatch.stop();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        stopwatch.print(outputStream);
+
+        String[] lines = new String(outputStream.toByteArray()).split("\n");
+        Assertions.assertEquals(8, lines.length);
+        Assertions.assertTrue(lines[0].startsWith("|     name |"));
+        Assertions.assertTrue(lines[0].endsWith("|      ms |      s | cpu | blocked | waited |"));
+        Assertions.assertTrue(lines[2].endsWith("| 1,000ms | 1.000s | N/A |     N/A |    N/A |"));
+        Assertions.assertTrue(lines[3].startsWith("|  sampled |"));
+        Assertions.assertTrue(lines[3].endsWith("| N/A |     N/A |    N/A |"));
+        Assertions.assertTrue(lines[4].startsWith("|  - first |"));
+        Assertions.assertTrue(lines[5].startsWith("| - (stop) |"));
+        Assertions.assertTrue(lines[5].endsWith("|     |         |        |"));
+        Assertions.assertTrue(lines[7].startsWith("|    total |"));
+        Assertions.assertTrue(lines[7].endsWith("| 0ms |     0ms |    0ms |"));
+        Assertions.assertTrue(stopwatch.watchItems.isEmpty());
+    }
+
+}
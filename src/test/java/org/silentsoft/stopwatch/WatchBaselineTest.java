@@ -0,0 +1,111 @@
+package org.silentsoft.stopwatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class WatchBaselineTest {
+
+    private static WatchStatistics statistics(String name, long... elapsedMillis) {
+        WatchStatistics statistics = new WatchStatistics(name);
+        for (long elapsedMilli : elapsedMillis) {
+            statistics.add(elapsedMilli);
+        }
+        return statistics;
+    }
+
+    @Test
+    public void compareTest() {
+        WatchBaseline baseline = new WatchBaseline(Arrays.asList(
+                statistics("slower", 10, 11, 9, 10, 10, 11, 9, 10),
+                statistics("noisy", 5, 50, 5, 50),
+                statistics("faster", 20, 21, 19, 20),
+                statistics("single", 10),
+                statistics("missing", 1, 2)
+        ));
+
+        List<WatchBaseline.Comparison> comparisons = baseline.compare(Arrays.asList(
+                statistics("slower", 15, 16, 14, 15, 15, 16, 14, 15),
+                statistics("noisy", 5, 60, 5, 60),
+                statistics("faster", 10, 11, 9, 10),
+                statistics("single", 12),
+                statistics("new", 3)
+        ));
+        Assertions.assertEquals(6, comparisons.size());
+
+        WatchBaseline.Comparison slower = comparisons.get(0);
+        Assertions.assertEquals("slower", slower.getName());
+        Assertions.assertEquals(50.0, slower.getDeltaPercentage(), 0.001);
+        Assertions.assertTrue(slower.isSignificanceAvailable());
+        Assertions.assertTrue(slower.isSignificant());
+        Assertions.assertTrue(slower.getTStatistic() > 0);
+        Assertions.assertTrue(slower.isRegressed());
+
+        WatchBaseline.Comparison noisy = comparisons.get(1);
+        Assertions.assertTrue(noisy.getDeltaPercentage() > 10);
+        Assertions.assertFalse(noisy.isSignificant());
+        Assertions.assertFalse(noisy.isRegressed());
+
+        WatchBaseline.Comparison faster = comparisons.get(2);
+        Assertions.assertEquals(-50.0, faster.getDeltaPercentage(), 0.001);
+        Assertions.assertTrue(faster.isSignificant());
+        Assertions.assertFalse(faster.isRegressed());
+
+        WatchBaseline.Comparison single = comparisons.get(3);
+        Assertions.assertFalse(single.isSignificanceAvailable());
+        Assertions.assertTrue(single.isRegressed());
+
+        Assertions.assertNull(comparisons.get(4).getCurrent());
+        Assertions.assertFalse(comparisons.get(4).isRegressed());
+        Assertions.assertEquals("new", comparisons.get(5).getName());
+        Assertions.assertNull(comparisons.get(5).getBaseline());
+
+        baseline.setRegressionThreshold(25.0);
+        Assertions.assertFalse(baseline.compare(Collections.singletonList(statistics("single", 12))).get(3).isRegressed());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> baseline.setRegressionThreshold(-1));
+    }
+
+    @Test
+    public void printTest() {
+        WatchBaseline baseline = new WatchBaseline(Arrays.asList(statistics("parse", 10, 14), statistics("render", 40, 40)));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        baseline.print(Arrays.asList(statistics("parse", 15, 16), statistics("render", 39, 39), statistics("fetch", 3)), outputStream);
+
+        String[] lines = outputStream.toString().split("\n");
+        Assertions.assertEquals(5, lines.length);
+        Assertions.assertEquals("|   name | baseline | current |  delta | significant |   status |", lines[0]);
+        Assertions.assertEquals("|  parse |     12ms |  15.5ms | +29.2% |          no |          |", lines[2]);
+        Assertions.assertEquals("| render |     40ms |    39ms |  -2.5% |         yes | improved |", lines[3]);
+        Assertions.assertEquals("|  fetch |          |     3ms |        |             |      new |", lines[4]);
+    }
+
+    @Test
+    public void assertNoRegressionTest(@TempDir Path directory) throws Exception {
+        Path path = directory.resolve("baseline.stopwatch");
+
+        Stopwatch stopwatch = new Stopwatch();
+        for (int i=0; i<10; i++) {
+            stopwatch.add(new WatchItem("phase", 0, 100 + (i % 2)));
+        }
+        WatchBaseline.save(stopwatch.getStatistics().values(), path);
+
+        WatchBaseline baseline = WatchBaseline.load(path);
+        baseline.assertNoRegression(stopwatch.getStatistics().values());
+
+        Stopwatch regressed = new Stopwatch();
+        for (int i=0; i<10; i++) {
+            regressed.add(new WatchItem("phase", 0, 150 + (i % 2)));
+        }
+        AssertionError error = Assertions.assertThrows(AssertionError.class, () -> baseline.assertNoRegression(regressed.getStatistics().values()));
+        Assertions.assertTrue(error.getMessage().startsWith("1 task(s) regressed by more than 10.0%:\n"));
+        Assertions.assertTrue(error.getMessage().contains("| phase |"));
+    }
+
+}
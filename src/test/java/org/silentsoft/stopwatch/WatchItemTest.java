@@ -43,6 +43,37 @@ public class WatchItemTest {
         }
     }
 
+    @Test
+    public void lapTest() {
+        long now = System.currentTimeMillis();
+        WatchItem watchItem = new WatchItem("test", now - 1000);
+        Assertions.assertEquals(0, watchItem.getLapCount());
+
+        for (int i=0; i<10; i++) {
+            Assertions.assertTrue(watchItem.lap(new String("stage-".concat(String.valueOf(i)))));
+        }
+        Assertions.assertEquals(10, watchItem.getLapCount());
+        Assertions.assertSame("stage-0", watchItem.getLapLabel(0));
+        Assertions.assertTrue(watchItem.getLapMilli(0) >= 1000);
+        for (int i=1; i<10; i++) {
+            Assertions.assertTrue(watchItem.getLapMilli(i) >= 0);
+        }
+
+        watchItem.stop();
+        Assertions.assertFalse(watchItem.lap("after"));
+        Assertions.assertEquals(10, watchItem.getLapCount());
+
+        WatchItem pausedWatchItem = new WatchItem("test", now - 1000);
+        pausedWatchItem.setTotalPausedMilli(600);
+        pausedWatchItem.setPauseEpochMilli(now - 100);
+        pausedWatchItem.lap("paused");
+        Assertions.assertEquals(300, pausedWatchItem.getLapMilli(0), 50);
+
+        Assertions.assertThrows(NullPointerException.class, () -> watchItem.lap(null));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> watchItem.getLapMilli(10));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> watchItem.getLapLabel(-1));
+    }
+
     private void pause(WatchItem watchItem) throws Exception {
         Field pauseEpochMilliField = watchItem.getClass().getDeclaredField("pauseEpochMilli");
         pauseEpochMilliField.setAccessible(true);
@@ -0,0 +1,110 @@
+package org.silentsoft.stopwatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class WatchStatisticsFileTest {
+
+    @Test
+    public void writeAndReadTest() throws Exception {
+        WatchStatistics statistics = new WatchStatistics("test");
+        statistics.add(0);
+        statistics.add(3);
+        statistics.add(1000);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        WatchStatisticsFile.write(Arrays.asList(statistics, new WatchStatistics("empty")), outputStream);
+
+        Map<String, WatchStatistics> read = WatchStatisticsFile.read(new ByteArrayInputStream(outputStream.toByteArray()));
+        Assertions.assertArrayEquals(new String[] { "test", "empty" }, read.keySet().toArray());
+
+        WatchStatistics readStatistics = read.get("test");
+        Assertions.assertEquals(3, readStatistics.getCount());
+        Assertions.assertEquals(1003, readStatistics.getTotalElapsedMilli());
+        Assertions.assertEquals(0, readStatistics.getMinElapsedMilli());
+        Assertions.assertEquals(1000, readStatistics.getMaxElapsedMilli());
+        Assertions.assertEquals(statistics.getStandardDeviationMilli(), readStatistics.getStandardDeviationMilli());
+        Assertions.assertArrayEquals(statistics.getHistogram(), readStatistics.getHistogram());
+
+        WatchStatistics empty = read.get("empty");
+        Assertions.assertEquals(0, empty.getCount());
+        empty.add(5);
+        Assertions.assertEquals(5, empty.getMinElapsedMilli());
+        Assertions.assertEquals(5, empty.getMaxElapsedMilli());
+    }
+
+    @Test
+    public void mergeTest(@TempDir Path directory) throws Exception {
+        List<Path> paths = new ArrayList<>();
+        for (int i=0; i<40; i++) {
+            Stopwatch stopwatch = new Stopwatch();
+            stopwatch.add(new WatchItem("common", 0, i));
+            stopwatch.add(new WatchItem("node-".concat(String.valueOf(i % 2)), 0, 10));
+
+            Path path = directory.resolve(String.valueOf(i));
+            WatchStatisticsFile.write(stopwatch.getStatistics().values(), path);
+            paths.add(path);
+        }
+
+        Map<String, WatchStatistics> merged = WatchStatisticsFile.merge(paths);
+        Assertions.assertArrayEquals(new String[] { "common", "node-0", "node-1" }, merged.keySet().toArray());
+        Assertions.assertEquals(40, merged.get("common").getCount());
+        Assertions.assertEquals(780, merged.get("common").getTotalElapsedMilli());
+        Assertions.assertEquals(0, merged.get("common").getMinElapsedMilli());
+        Assertions.assertEquals(39, merged.get("common").getMaxElapsedMilli());
+        Assertions.assertEquals(20, merged.get("node-0").getCount());
+        Assertions.assertEquals(20, merged.get("node-1").getCount());
+
+        Assertions.assertEquals(1, WatchStatisticsFile.read(paths.get(0)).get("common").getCount());
+        Assertions.assertTrue(WatchStatisticsFile.merge(Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    public void printTest() {
+        WatchStatistics statistics = new WatchStatistics("test");
+        statistics.add(1000);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        WatchStatisticsFile.print(Collections.emptyList(), outputStream);
+        Assertions.assertEquals(0, outputStream.size());
+
+        WatchStatisticsFile.print(Collections.singletonList(statistics), outputStream);
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("|  name | count |    % |      ms |      s |\n");
+        builder.append("|-------|-------|------|---------|--------|\n");
+        builder.append("|  test |     1 | 100% | 1,000ms | 1.000s |\n");
+        builder.append("|       |       |      |         |        |\n");
+        builder.append("| total |     1 | 100% | 1,000ms | 1.000s |\n");
+
+        Assertions.assertEquals(builder.toString(), new String(outputStream.toByteArray()));
+    }
+
+    @Test
+    public void exceptionTest(@TempDir Path directory) {
+        Assertions.assertThrows(IOException.class, () -> {
+            WatchStatisticsFile.read(new ByteArrayInputStream(new byte[] { 0, 0, 0, 0, 1 }));
+        });
+        Assertions.assertThrows(IOException.class, () -> {
+            WatchStatisticsFile.read(new ByteArrayInputStream(new byte[] { 0x53, 0x54, 0x50, 0x57, 2 }));
+        });
+        Assertions.assertThrows(IOException.class, () -> {
+            WatchStatisticsFile.merge(Collections.singletonList(directory.resolve("none")));
+        });
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            WatchStatisticsFile.print(Collections.emptyList(), null);
+        });
+    }
+
+}
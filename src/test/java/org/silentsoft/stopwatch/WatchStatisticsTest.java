@@ -0,0 +1,104 @@
+package org.silentsoft.stopwatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class WatchStatisticsTest {
+
+    @Test
+    public void addTest() {
+        WatchStatistics statistics = new WatchStatistics("test");
+        Assertions.assertEquals("test", statistics.getName());
+        Assertions.assertEquals(0, statistics.getCount());
+        Assertions.assertEquals(0, statistics.getMinElapsedMilli());
+        Assertions.assertEquals(0, statistics.getMaxElapsedMilli());
+        Assertions.assertEquals(0, statistics.getAverageElapsedMilli());
+
+        statistics.add(10);
+        statistics.add(30);
+        statistics.add(20);
+
+        Assertions.assertEquals(3, statistics.getCount());
+        Assertions.assertEquals(60, statistics.getTotalElapsedMilli());
+        Assertions.assertEquals(10, statistics.getMinElapsedMilli());
+        Assertions.assertEquals(30, statistics.getMaxElapsedMilli());
+        Assertions.assertEquals(20, statistics.getAverageElapsedMilli());
+    }
+
+    @Test
+    public void mergeTest() {
+        WatchStatistics statistics = new WatchStatistics("test");
+        statistics.add(10);
+
+        WatchStatistics other = new WatchStatistics("test");
+        other.add(5);
+        other.add(50);
+
+        statistics.merge(other);
+        statistics.merge(new WatchStatistics("test"));
+
+        Assertions.assertEquals(3, statistics.getCount());
+        Assertions.assertEquals(65, statistics.getTotalElapsedMilli());
+        Assertions.assertEquals(5, statistics.getMinElapsedMilli());
+        Assertions.assertEquals(50, statistics.getMaxElapsedMilli());
+
+        WatchStatistics copy = statistics.copy();
+        copy.add(100);
+        Assertions.assertEquals(3, statistics.getCount());
+        Assertions.assertEquals(4, copy.getCount());
+    }
+
+    @Test
+    public void distributionTest() {
+        WatchStatistics statistics = new WatchStatistics("test");
+        Assertions.assertEquals(0, statistics.getStandardDeviationMilli());
+        Assertions.assertEquals(0, statistics.getPercentileElapsedMilli(50));
+
+        for (long elapsedMilli : new long[] { 0, 1, 2, 3, 4, 100 }) {
+            statistics.add(elapsedMilli);
+        }
+
+        long[] histogram = statistics.getHistogram();
+        Assertions.assertEquals(WatchStatistics.BUCKETS, histogram.length);
+        Assertions.assertEquals(1, histogram[0]);
+        Assertions.assertEquals(1, histogram[1]);
+        Assertions.assertEquals(2, histogram[2]);
+        Assertions.assertEquals(1, histogram[3]);
+        Assertions.assertEquals(1, histogram[7]);
+
+        Assertions.assertEquals(0, statistics.getPercentileElapsedMilli(0));
+        Assertions.assertEquals(3, statistics.getPercentileElapsedMilli(50));
+        Assertions.assertEquals(100, statistics.getPercentileElapsedMilli(99));
+        Assertions.assertEquals(100, statistics.getPercentileElapsedMilli(100));
+
+        WatchStatistics constant = new WatchStatistics("test");
+        constant.add(5);
+        constant.add(5);
+        Assertions.assertEquals(0, constant.getStandardDeviationMilli(), 1e-9);
+
+        WatchStatistics spread = new WatchStatistics("test");
+        spread.add(2);
+        spread.add(4);
+        spread.add(4);
+        spread.add(4);
+        spread.add(5);
+        spread.add(5);
+        spread.add(7);
+        spread.add(9);
+        Assertions.assertEquals(2, spread.getStandardDeviationMilli(), 1e-9);
+    }
+
+    @Test
+    public void exceptionTest() {
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new WatchStatistics(null);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new WatchStatistics("test").merge(new WatchStatistics("test-1"));
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new WatchStatistics("test").getPercentileElapsedMilli(101);
+        });
+    }
+
+}
@@ -0,0 +1,84 @@
+package org.silentsoft.stopwatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+public class WatchTimerTest {
+
+    @Test
+    public void timerTest() {
+        Stopwatch stopwatch = new Stopwatch();
+        WatchTimer timer = stopwatch.timer("db.query");
+        Assertions.assertSame(timer, stopwatch.timer("db.query"));
+        Assertions.assertNotSame(timer, stopwatch.timer("db.update"));
+        Assertions.assertEquals("db.query", timer.getName());
+
+        WatchItem first = timer.start();
+        stopwatch.start("other");
+        WatchItem second = timer.start();
+        Assertions.assertEquals(first.getNameId(), second.getNameId());
+        Assertions.assertEquals(3, stopwatch.watchItems.size());
+
+        timer.pause();
+        Assertions.assertNotNull(second.getPauseEpochMilli());
+        Assertions.assertNull(first.getPauseEpochMilli());
+        timer.resume();
+        Assertions.assertNull(second.getPauseEpochMilli());
+
+        timer.stop();
+        Assertions.assertNotNull(second.getEndEpochMilli());
+        Assertions.assertNull(first.getEndEpochMilli());
+        Assertions.assertNull(stopwatch.watchItems.get(1).getEndEpochMilli());
+
+        stopwatch.stop("db.query");
+        Assertions.assertNotNull(first.getEndEpochMilli());
+
+        timer.time(() -> { });
+
+        Map<String, WatchStatistics> statistics = stopwatch.getStatistics();
+        Assertions.assertEquals(1, statistics.size());
+        Assertions.assertEquals(3, statistics.get("db.query").getCount());
+    }
+
+    @Test
+    public void nameIdTest() {
+        Stopwatch stopwatch = new Stopwatch();
+        stopwatch.start("test-1");
+        stopwatch.start("test-2");
+        WatchItem renamed = stopwatch.watchItems.get(1);
+        renamed.setName("test-1");
+        Assertions.assertEquals(-1, renamed.getNameId());
+
+        stopwatch.stop("test-1");
+        Assertions.assertNotNull(renamed.getEndEpochMilli());
+        Assertions.assertNull(stopwatch.watchItems.get(0).getEndEpochMilli());
+
+        WatchItem foreign = new WatchItem("test-2", 0, 10);
+        foreign.setNameId(42);
+        stopwatch.add(foreign);
+        Assertions.assertEquals(-1, foreign.getNameId());
+        Assertions.assertEquals(-1, stopwatch.watchItems.get(0).getNameId());
+
+        WatchItem started = stopwatch.timer("test-1").start();
+        Assertions.assertTrue(started.getNameId() >= 0);
+        stopwatch.timer("test-1").stop();
+        Assertions.assertNotNull(started.getEndEpochMilli());
+        stopwatch.timer("test-1").stop();
+        Assertions.assertNotNull(stopwatch.watchItems.get(0).getEndEpochMilli());
+
+        Stopwatch drained = stopwatch.drain();
+        Assertions.assertEquals(2, drained.getStatistics().size());
+        Assertions.assertEquals(3, drained.getStatistics().get("test-1").getCount());
+        Assertions.assertEquals(10, drained.getStatistics().get("test-2").getTotalElapsedMilli());
+    }
+
+    @Test
+    public void exceptionTest() {
+        Assertions.assertThrows(NullPointerException.class, () -> {
+            new Stopwatch().timer(null);
+        });
+    }
+
+}
@@ -0,0 +1,165 @@
+package org.silentsoft.stopwatch.agent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silentsoft.stopwatch.Stopwatch;
+import org.silentsoft.stopwatch.ThreadStateStopwatch;
+import org.silentsoft.stopwatch.ThreadStateWatchItem;
+import org.silentsoft.stopwatch.WatchItem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class TimedClassTransformerTest {
+
+    private Stopwatch stopwatch;
+
+    @BeforeEach
+    public void setUp() {
+        stopwatch = new Stopwatch();
+        TimedRuntime.setStopwatch(stopwatch);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TimedRuntime.setStopwatch(new Stopwatch());
+    }
+
+    @Test
+    public void annotatedTest() throws Exception {
+        Object target = load(new TimedClassTransformer()).getConstructor().newInstance();
+
+        Assertions.assertEquals(42, invoke(target, "annotated", 21));
+        invoke(target, "unnamed");
+        Assertions.assertEquals("caught", invoke(target, "caught"));
+        Assertions.assertThrows(IllegalStateException.class, () -> {
+            try {
+                invoke(target, "throwing");
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+        Assertions.assertEquals(2L, invoke(target, "notAnnotated", 1L));
+
+        Map<String, Long> counts = stopwatch.getStatistics().values().stream().collect(Collectors.toMap(statistics -> statistics.getName(), statistics -> statistics.getCount()));
+        Assertions.assertEquals(4, counts.size());
+        Assertions.assertEquals(1, counts.get("annotated"));
+        Assertions.assertEquals(1, counts.get("TimedTarget.unnamed"));
+        Assertions.assertEquals(1, counts.get("throwing"));
+        Assertions.assertEquals(1, counts.get("caught"));
+    }
+
+    @Test
+    public void staticInitializerTest() throws Exception {
+        Class<?> type = load(new TimedClassTransformer(), TimedTarget.Initialized.class);
+        Object target = type.getConstructor().newInstance();
+
+        Assertions.assertEquals("initialized", invoke(target, "state"));
+        Assertions.assertEquals(1, stopwatch.getStatistics().get("initialized").getCount());
+        Assertions.assertEquals(1, Arrays.stream(type.getDeclaredFields()).filter(field -> field.isSynthetic() && field.getType() == TimedRuntime.Handle.class).count());
+    }
+
+    @Test
+    public void rebindTest() throws Exception {
+        Object target = load(new TimedClassTransformer()).getConstructor().newInstance();
+        invoke(target, "annotated", 1);
+
+        Stopwatch anotherStopwatch = new Stopwatch();
+        TimedRuntime.setStopwatch(anotherStopwatch);
+        invoke(target, "annotated", 1);
+        invoke(target, "annotated", 1);
+
+        Assertions.assertEquals(1, stopwatch.getStatistics().get("annotated").getCount());
+        Assertions.assertEquals(2, anotherStopwatch.getStatistics().get("annotated").getCount());
+    }
+
+    @Test
+    public void packageTest() throws Exception {
+        Object target = load(new TimedClassTransformer("org.silentsoft.stopwatch.agent")).getConstructor().newInstance();
+
+        Assertions.assertEquals(2L, invoke(target, "notAnnotated", 1L));
+        Assertions.assertEquals(0L, invoke(target, "notPublic"));
+
+        Assertions.assertEquals(1, stopwatch.getStatistics().size());
+        Assertions.assertEquals(1, stopwatch.getStatistics().get("TimedTarget.notAnnotated").getCount());
+    }
+
+    @Test
+    public void createWatchItemTest() {
+        TimedRuntime.setStopwatch(new ThreadStateStopwatch());
+
+        TimedRuntime.Handle handle = TimedRuntime.handle("test");
+        Assertions.assertEquals("test", handle.getName());
+
+        WatchItem watchItem = TimedRuntime.start(handle);
+        Assertions.assertTrue(watchItem instanceof ThreadStateWatchItem);
+        TimedRuntime.stop(watchItem);
+        Assertions.assertEquals(1, TimedRuntime.getStopwatch().getStatistics().get("test").getCount());
+
+        Assertions.assertThrows(NullPointerException.class, () -> TimedRuntime.handle(null));
+    }
+
+    @Test
+    public void notTransformedTest() throws Exception {
+        byte[] classfileBuffer = read(TimedClassTransformerTest.class);
+        Assertions.assertNull(new TimedClassTransformer().transform(getClass().getClassLoader(), "org/silentsoft/stopwatch/agent/TimedClassTransformerTest", classfileBuffer));
+        Assertions.assertNull(new TimedClassTransformer("org.silentsoft").transform(getClass().getClassLoader(), "org/silentsoft/stopwatch/agent/TimedTarget", null, null, read(TimedTarget.class)));
+        Assertions.assertNull(new TimedClassTransformer().transform(getClass().getClassLoader(), null, null, null, classfileBuffer));
+    }
+
+    @Test
+    public void parseTest() {
+        Assertions.assertArrayEquals(new String[0], StopwatchAgent.parse(null));
+        Assertions.assertArrayEquals(new String[0], StopwatchAgent.parse(" "));
+        Assertions.assertArrayEquals(new String[] { "com.example", "org.example" }, StopwatchAgent.parse("com.example, org.example,"));
+    }
+
+    private Class<?> load(TimedClassTransformer transformer) throws Exception {
+        return load(transformer, TimedTarget.class);
+    }
+
+    private Class<?> load(TimedClassTransformer transformer, Class<?> type) throws Exception {
+        String className = type.getName();
+        byte[] woven = transformer.transform(getClass().getClassLoader(), className.replace('.', '/'), read(type));
+        Assertions.assertNotNull(woven);
+
+        return new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (className.equals(name)) {
+                    return defineClass(name, woven, 0, woven.length);
+                }
+                return super.loadClass(name, resolve);
+            }
+        }.loadClass(className);
+    }
+
+    private Object invoke(Object target, String name, Object... arguments) throws Exception {
+        for (Method method : target.getClass().getDeclaredMethods()) {
+            if (method.getName().equals(name)) {
+                method.setAccessible(true);
+                return method.invoke(target, arguments);
+            }
+        }
+        throw new NoSuchMethodException(name);
+    }
+
+    private byte[] read(Class<?> type) throws Exception {
+        try (InputStream inputStream = type.getResourceAsStream(type.getName().substring(type.getName().lastIndexOf('.') + 1).concat(".class"))) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int length; (length = inputStream.read(buffer)) != -1; ) {
+                outputStream.write(buffer, 0, length);
+            }
+            return outputStream.toByteArray();
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package org.silentsoft.stopwatch.agent;
+
+public class TimedTarget {
+
+    @Timed("annotated")
+    public int annotated(int value) {
+        return value * 2;
+    }
+
+    @Timed
+    public void unnamed() {
+
+    }
+
+    @Timed("throwing")
+    public void throwing() {
+        throw new IllegalStateException();
+    }
+
+    @Timed("caught")
+    public String caught() {
+        try {
+            throw new IllegalStateException();
+        } catch (IllegalStateException e) {
+            return "caught";
+        }
+    }
+
+    public long notAnnotated(long value) {
+        return value + 1;
+    }
+
+    long notPublic() {
+        return 0;
+    }
+
+    public static class Initialized {
+
+        private static final String STATE;
+
+        static {
+            STATE = "initialized";
+        }
+
+        @Timed("initialized")
+        public String state() {
+            return STATE;
+        }
+
+    }
+
+}
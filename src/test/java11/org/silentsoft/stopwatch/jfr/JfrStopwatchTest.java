@@ -0,0 +1,55 @@
+package org.silentsoft.stopwatch.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class JfrStopwatchTest {
+
+    @Test
+    public void eventTest(@TempDir Path directory) throws Exception {
+        JfrStopwatch stopwatch = new JfrStopwatch();
+
+        stopwatch.start("disabled");
+        stopwatch.stop();
+
+        Path path = directory.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(WatchItemEvent.NAME).withoutThreshold();
+            recording.start();
+
+            stopwatch.start("enabled");
+            Thread.sleep(5);
+            stopwatch.pause();
+            Thread.sleep(5);
+            stopwatch.resume();
+            stopwatch.stop();
+            stopwatch.stop();
+
+            stopwatch.timer("timer").time(() -> { });
+
+            recording.stop();
+            recording.dump(path);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(path).stream().filter(event -> event.getEventType().getName().equals(WatchItemEvent.NAME)).collect(Collectors.toList());
+        Assertions.assertEquals(2, events.size());
+
+        RecordedEvent event = events.get(0);
+        Assertions.assertEquals("enabled", event.getString("name"));
+        Assertions.assertTrue(event.getLong("paused") > 0);
+        Assertions.assertTrue(event.getDuration().toMillis() >= event.getLong("elapsed"));
+        Assertions.assertEquals(Thread.currentThread().getName(), event.getThread().getJavaName());
+
+        Assertions.assertEquals("timer", events.get(1).getString("name"));
+        Assertions.assertEquals(3, stopwatch.getStatistics().size());
+    }
+
+}